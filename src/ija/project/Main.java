@@ -2,15 +2,27 @@
  * Project name: Robot Simulation
  * File name: Main.java
  * Date: 05.05.2024
- * Last update: 05.05.2024
+ * Last update: 18.10.2026
  * Author: Neonila Mashlai(xmashl00)
  * Description: Entry point of the application.
  */
 
 package ija.project;
 
+import ija.project.game.AutomatedRobot;
+import ija.project.game.ControlledRobot;
+import ija.project.game.Room;
+import ija.project.game.SimulationEngine;
+import ija.project.utils.Converter;
+import ija.project.utils.Loader;
+import ija.project.utils.LogConverter;
+import ija.project.utils.MapGenerator;
 import ija.project.view.MenuView;
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
 /**
  * The Main class is the entry point of the application.
  */
@@ -23,13 +35,314 @@ public class Main {
 
     /**
      * The main method that starts the application by rendering the main menu.
+     * With the arguments {@code --headless <map> <ticks> [threads [seed]]} the simulation of the map runs without
+     * a display for the specified number of ticks and prints how long it took.
+     * With the arguments {@code --convert-log <input> <output>} a JSON log is converted to a binary log,
+     * or a binary log to a JSON log if the input does not end with .json.
+     * With the arguments {@code --generate <map> <layout> <columns> <rows> [density [robots [controlled [seed]]]]}
+     * a map is generated and saved to data/maps, see MapGenerator.
+     * With the arguments {@code --benchmark [ticks [threads]]} the simulation runs on generated maps with a growing
+     * number of robots and the cost of a tick is printed for each of them.
+     * With the arguments {@code --check-allocation [moves]} the memory allocated by a move of a robot is measured,
+     * the exit code is 1 if a move allocates.
      *
-     * @param args The command-line arguments(ignored).
+     * @param args The command-line arguments.
      */
     public static void main(String[] args) {
 
+        if (args.length > 0 && args[0].equals("--headless")) {
+            runHeadless(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--convert-log")) {
+            convertLog(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--generate")) {
+            generateMap(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--benchmark")) {
+            runBenchmark(args);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--check-allocation")) {
+            checkAllocation(args);
+            return;
+        }
+
         MenuView menuView = new MenuView();
         menuView.render();
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs the simulation of a map without a display.
+     *
+     * @param args The command-line arguments, the map name, the number of ticks and optionally
+     *             the number of threads and the seed follow the flag.
+     */
+    private static void runHeadless(String[] args) {
+
+        if (args.length < 3 || args.length > 5) {
+            System.out.println("Usage: --headless <map> <ticks> [threads [seed]]");
+            System.exit(1);
+        }
+
+        Loader loader = new Loader();
+        loader.load(args[1]);
+
+        long ticks;
+        int threads;
+        try {
+            ticks = Long.parseLong(args[2]);
+            threads = args.length >= 4 ? Integer.parseInt(args[3]) : 1;
+            if (args.length == 5) {
+                loader.getRoom().setSeed(Long.parseLong(args[4]));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        SimulationEngine engine = new SimulationEngine(new Converter().convertCoords(loader.getRoom()));
+        engine.setParallelism(threads);
+
+        long start = System.nanoTime();
+        engine.tick(ticks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d ticks of %d robots with seed %d in %.3f s (%.0f ticks/s)%n", engine.getTick(),
+                engine.getRoom().getRobots().size() + engine.getRoom().getControlledRobots().size(),
+                engine.getRoom().getSeed(), seconds, engine.getTick() / seconds);
+
+        engine.shutdown();
+
+    }
+
+    /**
+     * Converts a log between the JSON and the binary format.
+     *
+     * @param args The command-line arguments, the input and the output file follow the flag.
+     */
+    private static void convertLog(String[] args) {
+
+        if (args.length != 3) {
+            System.out.println("Usage: --convert-log <input> <output>");
+            System.exit(1);
+        }
+
+        File input = new File(args[1]);
+        File output = new File(args[2]);
+
+        if (input.getName().endsWith(".json")) {
+            new LogConverter().jsonToBinary(input, output);
+        } else {
+            new LogConverter().binaryToJson(input, output);
+        }
+
+        System.out.printf("Converted %s (%d bytes) to %s (%d bytes)%n", input, input.length(), output, output.length());
+
+    }
+
+    /**
+     * Generates a map and saves it to data/maps.
+     *
+     * @param args The command-line arguments, the map name, the layout, the number of columns and rows and
+     *             optionally the density, the number of automated and controlled robots and the seed follow the flag.
+     */
+    private static void generateMap(String[] args) {
+
+        if (args.length < 5 || args.length > 9) {
+            System.out.println("Usage: --generate <map> <scatter|maze|aisles|open> <columns> <rows> " +
+                    "[density [robots [controlled [seed]]]]");
+            System.exit(1);
+        }
+
+        MapGenerator.Layout layout;
+        try {
+            layout = MapGenerator.Layout.valueOf(args[2].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown layout: " + args[2]);
+            System.exit(1);
+            return;
+        }
+
+        Room room;
+        long start = System.nanoTime();
+        try {
+            int columns = Integer.parseInt(args[3]);
+            int rows = Integer.parseInt(args[4]);
+            double density = args.length >= 6 ? Double.parseDouble(args[5]) : 0.2;
+            int robots = args.length >= 7 ? Integer.parseInt(args[6]) : 10;
+            int controlledRobots = args.length >= 8 ? Integer.parseInt(args[7]) : 1;
+            long seed = args.length == 9 ? Long.parseLong(args[8]) : 1;
+            room = new MapGenerator(columns, rows, seed).generate(layout, density, robots, controlledRobots);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid argument: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        double generated = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        new Loader().saveMap(args[1], room);
+        double saved = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("Generated %s: %dx%d, %d obstacles in %d walls, %d robots, %d controlled, seed %d " +
+                        "in %.0f ms, saved in %.0f ms%n", args[1], room.getColumns(), room.getRows(),
+                room.getObstacles().size(), room.getObstacleField().getWallCount(), room.getRobots().size(),
+                room.getControlledRobots().size(), room.getSeed(), generated, saved);
+
+    }
+
+    /**
+     * Runs the simulation on generated maps with a growing number of robots and prints the cost of a tick,
+     * which grows linearly with the number of robots as long as the cost per robot stays the same.
+     * Every map has the same number of cells per robot, so the robots meet each other equally often.
+     *
+     * @param args The command-line arguments, optionally the number of ticks per map and the number of threads
+     *             follow the flag.
+     */
+    private static void runBenchmark(String[] args) {
+
+        if (args.length > 3) {
+            System.out.println("Usage: --benchmark [ticks [threads]]");
+            System.exit(1);
+        }
+
+        long ticks;
+        int threads;
+        try {
+            ticks = args.length >= 2 ? Long.parseLong(args[1]) : 200;
+            threads = args.length == 3 ? Integer.parseInt(args[2]) : 1;
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        int[] robotCounts = {1000, 2000, 4000, 8000, 16000};
+
+        // the first map is run once before measuring, so the measured runs use compiled code
+        benchmarkTick(robotCounts[0], ticks, threads);
+
+        System.out.printf("%8s %12s %18s%n", "robots", "ms/tick", "us/robot/tick");
+        double first = 0;
+        double last = 0;
+        for (int robots : robotCounts) {
+            double seconds = benchmarkTick(robots, ticks, threads);
+            last = seconds * 1e6 / ticks / robots;
+            if (first == 0) {
+                first = last;
+            }
+            System.out.printf(Locale.ROOT, "%8d %12.3f %18.4f%n", robots, seconds * 1e3 / ticks, last);
+        }
+
+        System.out.printf(Locale.ROOT, "Cost per robot and tick changed %.2fx from %d to %d robots%n", last / first,
+                robotCounts[0], robotCounts[robotCounts.length - 1]);
+
+    }
+
+    /**
+     * Runs the simulation on a generated map with 25 cells and 1.25 obstacles per robot.
+     *
+     * @param robots The number of automated robots.
+     * @param ticks The number of ticks to run.
+     * @param threads The number of threads.
+     * @return The time of the ticks in seconds, the map is generated before the time is taken.
+     */
+    private static double benchmarkTick(int robots, long ticks, int threads) {
+
+        int side = (int) Math.ceil(5 * Math.sqrt(robots));
+        Room room = new MapGenerator(side, side, 1).generate(MapGenerator.Layout.SCATTER, 0.05, robots, 0);
+
+        SimulationEngine engine = new SimulationEngine(new Converter().convertCoords(room));
+        engine.setParallelism(threads);
+
+        long start = System.nanoTime();
+        engine.tick(ticks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        engine.shutdown();
+        return seconds;
+
+    }
+
+    /**
+     * Measures the memory allocated on the heap by the moves of the robots of a generated map, which is none once
+     * the moves are compiled, and exits with the code 1 if the moves allocate.
+     *
+     * @param args The command-line arguments, optionally the number of measured moves follows the flag.
+     */
+    private static void checkAllocation(String[] args) {
+
+        if (args.length > 2) {
+            System.out.println("Usage: --check-allocation [moves]");
+            System.exit(1);
+        }
+
+        long moves;
+        try {
+            moves = args.length == 2 ? Long.parseLong(args[1]) : 1_000_000;
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) ||
+                !threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("The JVM does not measure the memory allocated by a thread");
+            System.exit(1);
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Room room = new Converter().convertCoords(
+                new MapGenerator(60, 40, 1).generate(MapGenerator.Layout.SCATTER, 0.1, 200, 1));
+        AutomatedRobot[] robots = room.getRobots().toArray(new AutomatedRobot[0]);
+        ControlledRobot controlledRobot = room.getControlledRobots().get(0);
+
+        // the moves are run before measuring, so the measured moves use compiled code
+        moveRobots(robots, controlledRobot, moves);
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        moveRobots(robots, controlledRobot, moves);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        System.out.printf(Locale.ROOT, "%d moves of %d robots allocated %d bytes (%.4f bytes/move)%n", moves,
+                robots.length + 1, allocated, (double) allocated / moves);
+
+        if (allocated > 0) {
+            System.exit(1);
+        }
+
+    }
+
+    /**
+     * Moves the robots of a room one after another.
+     *
+     * @param robots The automated robots of the room.
+     * @param controlledRobot The controlled robot of the room, it moves once in every round of the robots.
+     * @param moves The number of moves.
+     */
+    private static void moveRobots(AutomatedRobot[] robots, ControlledRobot controlledRobot, long moves) {
+
+        for (long move = 0; move < moves; move++) {
+            int index = (int) (move % (robots.length + 1));
+            if (index < robots.length) {
+                robots[index].move();
+            } else {
+                controlledRobot.move();
+            }
+        }
+
+    }
+}
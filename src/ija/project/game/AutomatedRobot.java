@@ -11,24 +11,38 @@ package ija.project.game;
 
 import ija.project.game.common.Robot;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Represents an automated robot that moves randomly.
+ * The state of the robot lives in a slot of a robot store, the robot is only a view of that slot.
+ * Until the robot is added to a room its state is kept in its fields, so creating a robot allocates no store.
  */
 public class AutomatedRobot implements Robot {
 
-    /** The position of the robot. */
-    private Position position;
-
      /** The room in which the robot is located. */
     private final Room room;
 
-     /** The angle of the robot. */
-    private int angle = 0;
+     /** The store holding the state of the robot, null until the robot is added to the room. */
+    private RobotStore store;
+
+     /** The slot of the robot in the store. */
+    private int slot;
+
+     /** X coordinate of the robot while it is in no store. */
+    private double x;
+
+     /** Y coordinate of the robot while it is in no store. */
+    private double y;
+
+     /** Angle the robot turns to while it is in no store. */
+    private int angle;
 
-     /** The real angle of the robot to smoothly turn it. */
-    private int real_angle = 0;
+     /** Angle the robot faces while it is in no store. */
+    private int realAngle;
+
+     /** Random stream of the robot while it is in no store, null until the robot is added to the room. */
+    private SplittableRandom random;
 
     /**
      * Creates a new automated robot with the specified position and room.
@@ -36,27 +50,38 @@ public class AutomatedRobot implements Robot {
      * @param position The position of the robot as an instance of the Position class.
      * @param room The room in which the robot is located as an instance of the Room class.
      */
-    public AutomatedRobot(Position position, Room room) {this.position = position;this.room = room;}
+    public AutomatedRobot(Position position, Room room) {
+        this.room = room;
+        this.x = position.getX();
+        this.y = position.getY();
+    }
 
     @Override
-    public Position getPosition() {return position;}
+    public Position getPosition() {
+        return store == null ? new Position(x, y) : new Position(store.x[slot], store.y[slot]);
+    }
 
     /**
-     * Turns the robot by a random angle.
+     * Turns the robot by a random angle drawn from the random stream of the robot.
      */
     @Override
-    public void turn() {angle = (angle + new Random().nextInt(360)) % 360;}
+    public void turn() {
+        ensureStore();
+        store.angle[slot] = (store.angle[slot] + store.random[slot].nextInt(360)) % 360;
+    }
 
     @Override
     public void move() {
+        ensureStore();
         adjustAngle();
         if (isAngleAdjusted()) {return;}
 
-        Position newPosition = calculateNewPosition(angle, position);
+        double x = store.x[slot] + RobotStore.stepX(store.angle[slot]);
+        double y = store.y[slot] + RobotStore.stepY(store.angle[slot]);
 
-        if (canMove(newPosition.getX(), newPosition.getY(), room, position)) {
+        if (canMove(x, y, room, isInRoom() ? slot : -1)) {
 
-            position = newPosition;
+            moveTo(x, y);
 
         } else {
 
@@ -66,20 +91,164 @@ public class AutomatedRobot implements Robot {
 
     }
 
+    /**
+     * Proposes a move for the current tick from the state of the previous tick.
+     * Only the slot of this robot is modified, so robots can propose in parallel.
+     */
+    void propose() {
+        store.conflict[slot] = false;
+
+        adjustAngle();
+        if (isAngleAdjusted()) {
+            store.proposal[slot] = RobotStore.PROPOSAL_NONE;
+            return;
+        }
+
+        double x = store.x[slot] + RobotStore.stepX(store.angle[slot]);
+        double y = store.y[slot] + RobotStore.stepY(store.angle[slot]);
+
+        store.proposedX[slot] = x;
+        store.proposedY[slot] = y;
+        store.proposal[slot] = canMove(x, y, room, slot) ? RobotStore.PROPOSAL_FREE : RobotStore.PROPOSAL_BLOCKED;
+    }
+
+    /**
+     * Checks the proposed move against the proposals of the neighbouring robots.
+     * Only the proposals are read, so robots can resolve their conflicts in parallel.
+     */
+    void resolveConflicts() {
+        if (store.proposal[slot] == RobotStore.PROPOSAL_FREE) {
+            store.conflict[slot] = room.getRobotGrid().proposalConflicts(slot, 28);
+        }
+    }
+
+    /**
+     * Commits the proposed move, or turns the robot if the move is not possible.
+     */
+    void commit() {
+        byte proposal = store.proposal[slot];
+
+        if (proposal == RobotStore.PROPOSAL_NONE) {
+            return;
+        }
+
+        if (proposal == RobotStore.PROPOSAL_FREE && !store.conflict[slot]) {
+
+            moveTo(store.proposedX[slot], store.proposedY[slot]);
+
+        } else {
+
+            turn();
+
+        }
+
+        store.proposal[slot] = RobotStore.PROPOSAL_NONE;
+    }
+
     @Override
-    public int getAngle() {return real_angle;}
+    public int getAngle() {return store == null ? realAngle : store.realAngle[slot];}
 
     @Override
-    public void setAngle(int angle) {this.real_angle = angle;}
+    public void setAngle(int angle) {
+        if (store == null) {
+            realAngle = angle;
+        } else {
+            store.realAngle[slot] = angle;
+        }
+    }
+
+    /**
+     * Moves the state of the robot into a slot of the store of the room.
+     *
+     * @param roomStore The store of the room.
+     * @param random The random stream of the robot in the room.
+     * @return The new slot of the robot.
+     */
+    int attach(RobotStore roomStore, SplittableRandom random) {
+        if (store == null) {
+            slot = roomStore.add(x, y, angle, realAngle, false, random);
+        } else {
+            slot = roomStore.add(store.x[slot], store.y[slot], store.angle[slot], store.realAngle[slot], false,
+                    random);
+        }
+        store = roomStore;
+        return slot;
+    }
+
+    /**
+     * Moves the state of the robot out of the store of the room into the fields of the robot.
+     */
+    void detach() {
+        x = store.x[slot];
+        y = store.y[slot];
+        angle = store.angle[slot];
+        realAngle = store.realAngle[slot];
+        random = store.random[slot];
+        store = null;
+    }
+
+    /**
+     * Updates the slot of the robot after a lower slot was removed from the store of the room.
+     *
+     * @param removed The removed slot.
+     */
+    void slotRemoved(int removed) {
+        if (isInRoom() && slot > removed) {
+            slot--;
+        }
+    }
+
+    /**
+     * Returns the slot of the robot in the store.
+     *
+     * @return The slot of the robot.
+     */
+    int getSlot() {return slot;}
+
+    /**
+     * Moves the robot to the specified position and updates the index of the room.
+     *
+     * @param x The X coordinate of the new position.
+     * @param y The Y coordinate of the new position.
+     */
+    private void moveTo(double x, double y) {
+        double previousX = store.x[slot];
+        double previousY = store.y[slot];
+        store.x[slot] = x;
+        store.y[slot] = y;
+
+        if (isInRoom()) {
+            room.robotMoved(slot, previousX, previousY);
+        }
+    }
+
+    /**
+     * Gives a robot in no store a store of its own, so it can move outside of a room.
+     * A robot never added to the room draws from a stream seeded by the seed of the room.
+     */
+    private void ensureStore() {
+        if (store == null) {
+            store = new RobotStore(1);
+            slot = store.add(x, y, angle, realAngle, false,
+                    random != null ? random : new SplittableRandom(room.getSeed()));
+        }
+    }
+
+    /**
+     * Checks if the state of the robot is held by the store of the room.
+     *
+     * @return True if the robot was added to the room, false otherwise.
+     */
+    private boolean isInRoom() {return store == room.getRobotStore();}
 
     /**
      * Adjusts the angle of the robot to smoothly turn it.
      */
     private void adjustAngle() {
-        if (real_angle < angle) {
-            real_angle += 1;
-        } else if (real_angle > angle) {
-            real_angle -= 1;
+        if (store.realAngle[slot] < store.angle[slot]) {
+            store.realAngle[slot] += 1;
+        } else if (store.realAngle[slot] > store.angle[slot]) {
+            store.realAngle[slot] -= 1;
         }
     }
 
@@ -88,6 +257,6 @@ public class AutomatedRobot implements Robot {
      *
      * @return True if the angle of the robot is adjusted, false otherwise.
      */
-    private boolean isAngleAdjusted() {return real_angle != angle;}
+    private boolean isAngleAdjusted() {return store.realAngle[slot] != store.angle[slot];}
 
 }
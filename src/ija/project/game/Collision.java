@@ -0,0 +1,58 @@
+/**
+ * Project name: Robot Simulation
+ * File name: Collision.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Collision tests between robots and obstacles on primitive coordinates.
+ */
+
+package ija.project.game;
+
+/**
+ * Collision tests between robots and obstacles on primitive coordinates.
+ * The tests work only on doubles and never allocate, so they can be called for every robot on every tick.
+ */
+public class Collision {
+
+    /**
+     * The class only holds static tests.
+     */
+    private Collision() {}
+
+    /**
+     * Checks if two circles with the specified centers overlap or touch.
+     *
+     * @param x1 The X coordinate of the center of the first circle.
+     * @param y1 The Y coordinate of the center of the first circle.
+     * @param x2 The X coordinate of the center of the second circle.
+     * @param y2 The Y coordinate of the center of the second circle.
+     * @param distance The sum of the radii of both circles.
+     * @return True if the circles overlap, false otherwise.
+     */
+    public static boolean circlesOverlap(double x1, double y1, double x2, double y2, double distance) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return dx * dx + dy * dy <= distance * distance;
+    }
+
+    /**
+     * Checks if a circle overlaps or touches an axis aligned rectangle.
+     *
+     * @param centerX The X coordinate of the center of the circle.
+     * @param centerY The Y coordinate of the center of the circle.
+     * @param radius The radius of the circle.
+     * @param x The X coordinate of the top left corner of the rectangle.
+     * @param y The Y coordinate of the top left corner of the rectangle.
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     * @return True if the circle and the rectangle overlap, false otherwise.
+     */
+    public static boolean circleIntersectsRect(double centerX, double centerY, double radius,
+                                               double x, double y, double width, double height) {
+        double dx = centerX - Math.max(x, Math.min(x + width, centerX));
+        double dy = centerY - Math.max(y, Math.min(y + height, centerY));
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+}
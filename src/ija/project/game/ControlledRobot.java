@@ -11,19 +11,38 @@ package ija.project.game;
 
 import ija.project.game.common.Robot;
 
+import java.util.SplittableRandom;
+
 /**
  * Represents a controlled robot that moves in the direction specified by the user.
+ * The state of the robot lives in a slot of a robot store, the robot is only a view of that slot.
+ * Until the robot is added to a room its state is kept in its fields, so creating a robot allocates no store.
  */
 public class ControlledRobot implements Robot {
 
-    /**   The position of the robot. */
-    private Position position;
-
     /**   The room in which the robot is located. */
     private final Room room;
 
-    /**   The angle of the robot. */
-    private int angle = 0;
+    /**   The store holding the state of the robot, null until the robot is added to the room. */
+    private RobotStore store;
+
+    /**   The slot of the robot in the store. */
+    private int slot;
+
+    /**   X coordinate of the robot while it is in no store. */
+    private double x;
+
+    /**   Y coordinate of the robot while it is in no store. */
+    private double y;
+
+    /**   Angle the robot turns to while it is in no store. */
+    private int angle;
+
+    /**   Angle the robot faces while it is in no store. */
+    private int realAngle;
+
+    /**   Random stream of the robot while it is in no store, null until the robot is added to the room. */
+    private SplittableRandom random;
 
     /**
      * Creates a new controlled robot with the specified position and room.
@@ -31,34 +50,124 @@ public class ControlledRobot implements Robot {
      * @param position The position of the robot as an instance of the Position class.
      * @param room The room in which the robot is located as an instance of the Room class.
      */
-    public ControlledRobot(Position position, Room room) {this.position = position;this.room = room;}
+    public ControlledRobot(Position position, Room room) {
+        this.room = room;
+        this.x = position.getX();
+        this.y = position.getY();
+    }
 
     /**
      * Turns the robot in the specified direction.
      *
      * @param direction The direction in which to turn the robot. 1 for right, -1 for left.
      */
-    public void turn(int direction) {angle = (angle + (direction == 1 ? 1 : -1) + 360) % 360;}
+    public void turn(int direction) {setAngle((getAngle() + (direction == 1 ? 1 : -1) + 360) % 360);}
 
     @Override
     public void move() {
-        Position newPosition = calculateNewPosition(angle, position);
+        ensureStore();
+        double x = store.x[slot] + RobotStore.stepX(store.angle[slot]);
+        double y = store.y[slot] + RobotStore.stepY(store.angle[slot]);
 
-        if (canMove(newPosition.getX(), newPosition.getY(), room, position)) {
+        if (canMove(x, y, room, isInRoom() ? slot : -1)) {
 
-            position = newPosition;
+            double previousX = store.x[slot];
+            double previousY = store.y[slot];
+            store.x[slot] = x;
+            store.y[slot] = y;
+
+            if (isInRoom()) {
+                room.robotMoved(slot, previousX, previousY);
+            }
 
         }
 
     }
 
     @Override
-    public Position getPosition() {return position;}
+    public Position getPosition() {
+        return store == null ? new Position(x, y) : new Position(store.x[slot], store.y[slot]);
+    }
 
     @Override
-    public int getAngle() {return angle;}
+    public int getAngle() {return store == null ? angle : store.angle[slot];}
 
     @Override
-    public void setAngle(int angle) {this.angle = angle;}
+    public void setAngle(int angle) {
+        if (store == null) {
+            this.angle = angle;
+            this.realAngle = angle;
+        } else {
+            store.angle[slot] = angle;
+            store.realAngle[slot] = angle;
+        }
+    }
+
+    /**
+     * Moves the state of the robot into a slot of the store of the room.
+     *
+     * @param roomStore The store of the room.
+     * @param random The random stream of the robot in the room.
+     * @return The new slot of the robot.
+     */
+    int attach(RobotStore roomStore, SplittableRandom random) {
+        if (store == null) {
+            slot = roomStore.add(x, y, angle, realAngle, true, random);
+        } else {
+            slot = roomStore.add(store.x[slot], store.y[slot], store.angle[slot], store.realAngle[slot], true,
+                    random);
+        }
+        store = roomStore;
+        return slot;
+    }
+
+    /**
+     * Moves the state of the robot out of the store of the room into the fields of the robot.
+     */
+    void detach() {
+        x = store.x[slot];
+        y = store.y[slot];
+        angle = store.angle[slot];
+        realAngle = store.realAngle[slot];
+        random = store.random[slot];
+        store = null;
+    }
+
+    /**
+     * Updates the slot of the robot after a lower slot was removed from the store of the room.
+     *
+     * @param removed The removed slot.
+     */
+    void slotRemoved(int removed) {
+        if (isInRoom() && slot > removed) {
+            slot--;
+        }
+    }
+
+    /**
+     * Returns the slot of the robot in the store.
+     *
+     * @return The slot of the robot.
+     */
+    int getSlot() {return slot;}
+
+    /**
+     * Gives a robot in no store a store of its own, so it can move outside of a room.
+     * A robot never added to the room draws from a stream seeded by the seed of the room.
+     */
+    private void ensureStore() {
+        if (store == null) {
+            store = new RobotStore(1);
+            slot = store.add(x, y, angle, realAngle, true,
+                    random != null ? random : new SplittableRandom(room.getSeed()));
+        }
+    }
+
+    /**
+     * Checks if the state of the robot is held by the store of the room.
+     *
+     * @return True if the robot was added to the room, false otherwise.
+     */
+    private boolean isInRoom() {return store == room.getRobotStore();}
 
 }
@@ -0,0 +1,393 @@
+/**
+ * Project name: Robot Simulation
+ * File name: ObstacleField.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Neonila Mashlai(xmashl00)
+ * Description: Occupancy bitmap and clearance field of the obstacles in a room.
+ */
+
+package ija.project.game;
+
+import java.util.Arrays;
+
+/**
+ * Occupancy bitmap and clearance field of the obstacles in a room.
+ * Obstacles are aligned to square cells, the bitmap marks the cells holding an obstacle and the clearance
+ * of a cell is the number of cells to the nearest obstacle in any direction, including diagonals.
+ * The field covers the whole room, cells outside of it are free.
+ * Adjacent obstacles are merged into walls, axis aligned rectangles of cells, so a wall of many cells is tested
+ * for collisions, drawn and saved as one shape. The walls are merged greedily: a wall starts at the first cell
+ * not in a wall yet in row order, grows to the right as far as possible and then down while the whole span
+ * below is free of walls and fully blocked. Like the clearance, the walls are rebuilt by update.
+ */
+public class ObstacleField {
+
+    /** Clearance of cells with no obstacle in the field. */
+    private static final short FAR = Short.MAX_VALUE;
+
+    /** Size of one cell of the field. */
+    private final double cellSize;
+
+    /** Number of columns of the field. */
+    private final int columns;
+
+    /** Number of rows of the field. */
+    private final int rows;
+
+    /** Occupancy bitmap, one bit per cell in row order. */
+    private final long[] occupied;
+
+    /** Clearance of every cell in row order, null until the clearance is needed for the first time. */
+    private short[] clearance = null;
+
+    /** Column, row, width and height in cells of every wall, four ints per wall. */
+    private int[] walls = new int[0];
+
+    /** Number of walls. */
+    private int wallCount = 0;
+
+    /** Index of the wall holding every cell in row order, null until the walls are needed for the first time. */
+    private int[] wallAt = null;
+
+    /** Whether the clearance and the walls have to be recomputed after the obstacles changed. */
+    private boolean dirty = true;
+
+    /**
+     * Creates a new empty field with the specified dimensions.
+     *
+     * @param columns The number of columns of the field.
+     * @param rows The number of rows of the field.
+     * @param cellSize The size of one cell, equal to the size of one obstacle.
+     */
+    public ObstacleField(int columns, int rows, double cellSize) {
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.occupied = new long[(int) (((long) columns * rows + 63) >>> 6)];
+    }
+
+    /**
+     * Marks the cell at the specified position as occupied.
+     *
+     * @param x The X coordinate of the obstacle.
+     * @param y The Y coordinate of the obstacle.
+     */
+    public void add(double x, double y) {
+        int column = cell(x);
+        int row = cell(y);
+
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            throw new IllegalArgumentException("Obstacle outside of the room");
+        }
+
+        int index = row * columns + column;
+        occupied[index >>> 6] |= 1L << index;
+        dirty = true;
+    }
+
+    /**
+     * Marks the cell at the specified position as free.
+     *
+     * @param x The X coordinate of the obstacle.
+     * @param y The Y coordinate of the obstacle.
+     */
+    public void remove(double x, double y) {
+        int column = cell(x);
+        int row = cell(y);
+
+        if (isBlocked(column, row)) {
+            int index = row * columns + column;
+            occupied[index >>> 6] &= ~(1L << index);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Removes all obstacles from the field.
+     */
+    public void clear() {
+        Arrays.fill(occupied, 0L);
+        dirty = true;
+    }
+
+    /**
+     * Checks if an obstacle is exactly at the specified position.
+     *
+     * @param x The X coordinate of the position.
+     * @param y The Y coordinate of the position.
+     * @return True if an obstacle is at the specified position, false otherwise.
+     */
+    public boolean obstacleAt(double x, double y) {
+        int column = cell(x);
+        int row = cell(y);
+        return column * cellSize == x && row * cellSize == y && isBlocked(column, row);
+    }
+
+    /**
+     * Checks if the specified cell holds an obstacle.
+     *
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return True if the cell holds an obstacle, false otherwise.
+     */
+    public boolean isBlocked(int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return false;
+        }
+        int index = row * columns + column;
+        return (occupied[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the number of cells from the specified cell to the nearest obstacle.
+     *
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return The clearance of the cell, 0 for an obstacle, -1 if the cell is outside of the field.
+     */
+    public int clearance(int column, int row) {
+        update();
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return -1;
+        }
+        return clearance[row * columns + column];
+    }
+
+    /**
+     * Returns the number of walls the obstacles are merged into.
+     *
+     * @return The number of walls.
+     */
+    public int getWallCount() {
+        update();
+        return wallCount;
+    }
+
+    /**
+     * Returns the first column of a wall.
+     *
+     * @param index The index of the wall.
+     * @return The column of the top left cell of the wall.
+     */
+    public int getWallColumn(int index) { return walls[4 * index]; }
+
+    /**
+     * Returns the first row of a wall.
+     *
+     * @param index The index of the wall.
+     * @return The row of the top left cell of the wall.
+     */
+    public int getWallRow(int index) { return walls[4 * index + 1]; }
+
+    /**
+     * Returns the width of a wall.
+     *
+     * @param index The index of the wall.
+     * @return The number of columns of the wall.
+     */
+    public int getWallWidth(int index) { return walls[4 * index + 2]; }
+
+    /**
+     * Returns the height of a wall.
+     *
+     * @param index The index of the wall.
+     * @return The number of rows of the wall.
+     */
+    public int getWallHeight(int index) { return walls[4 * index + 3]; }
+
+    /**
+     * Recomputes the clearance and the walls if the obstacles changed since the last update.
+     * The simulation calls it before a tick, so the parallel phases only read the field.
+     */
+    public void update() {
+        if (!dirty) {
+            return;
+        }
+
+        if (clearance == null) {
+            clearance = new short[columns * rows];
+        }
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int index = row * columns + column;
+                short value = isBlocked(column, row) ? 0 : FAR;
+
+                if (value != 0) {
+                    value = min(value, column, row - 1);
+                    value = min(value, column - 1, row);
+                    value = min(value, column - 1, row - 1);
+                    value = min(value, column + 1, row - 1);
+                }
+                clearance[index] = value;
+            }
+        }
+
+        for (int row = rows - 1; row >= 0; row--) {
+            for (int column = columns - 1; column >= 0; column--) {
+                int index = row * columns + column;
+                short value = clearance[index];
+
+                if (value != 0) {
+                    value = min(value, column, row + 1);
+                    value = min(value, column + 1, row);
+                    value = min(value, column + 1, row + 1);
+                    value = min(value, column - 1, row + 1);
+                }
+                clearance[index] = value;
+            }
+        }
+
+        mergeWalls();
+        dirty = false;
+    }
+
+    /**
+     * Checks if a circle collides with any obstacle.
+     * The cell of the center is looked up first, a circle far enough from every obstacle is not tested at all,
+     * otherwise the walls holding the cells covered by the circle are tested, each wall once. The obstacles
+     * of a wall are tested as one rectangle, so the seams between them do not exist. Before the first update
+     * after a change of the obstacles the covered cells are tested one by one.
+     *
+     * @param centerX The X coordinate of the center of the circle.
+     * @param centerY The Y coordinate of the center of the circle.
+     * @param radius The radius of the circle.
+     * @param size The size of the square of one obstacle used for the collision.
+     * @return True if the circle collides with an obstacle, false otherwise.
+     */
+    public boolean collides(double centerX, double centerY, double radius, double size) {
+        int column = cell(centerX);
+        int row = cell(centerY);
+
+        if (!dirty && column >= 0 && row >= 0 && column < columns && row < rows &&
+                clearance[row * columns + column] * cellSize > radius + cellSize) {
+            return false;
+        }
+
+        int firstColumn = Math.max(0, cell(centerX - radius));
+        int firstRow = Math.max(0, cell(centerY - radius));
+        int lastColumn = Math.min(columns - 1, cell(centerX + radius));
+        int lastRow = Math.min(rows - 1, cell(centerY + radius));
+
+        if (dirty) {
+            for (int j = firstRow; j <= lastRow; j++) {
+                for (int i = firstColumn; i <= lastColumn; i++) {
+                    if (isBlocked(i, j) && Collision.circleIntersectsRect(centerX, centerY, radius,
+                            i * cellSize, j * cellSize, size, size)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        for (int j = firstRow; j <= lastRow; j++) {
+            for (int i = firstColumn; i <= lastColumn; i++) {
+                int wall = wallAt[j * columns + i];
+                if (wall < 0) {
+                    continue;
+                }
+
+                wall *= 4;
+                int wallColumn = walls[wall];
+                int wallRow = walls[wall + 1];
+                // a wall is tested at its first cell covered by the circle only
+                if (j == Math.max(wallRow, firstRow) && Collision.circleIntersectsRect(centerX, centerY, radius,
+                        wallColumn * cellSize, wallRow * cellSize, (walls[wall + 2] - 1) * cellSize + size,
+                        (walls[wall + 3] - 1) * cellSize + size)) {
+                    return true;
+                }
+                // the rest of the wall in this row is skipped
+                i = wallColumn + walls[wall + 2] - 1;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Merges the obstacles into walls, every blocked cell ends up in exactly one wall.
+     */
+    private void mergeWalls() {
+        if (wallAt == null) {
+            wallAt = new int[columns * rows];
+        }
+        Arrays.fill(wallAt, -1);
+        wallCount = 0;
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (!isBlocked(column, row) || wallAt[row * columns + column] >= 0) {
+                    continue;
+                }
+
+                int width = 1;
+                while (column + width < columns && isBlocked(column + width, row) &&
+                        wallAt[row * columns + column + width] < 0) {
+                    width++;
+                }
+                int height = 1;
+                while (row + height < rows && isFreeSpan(column, row + height, width)) {
+                    height++;
+                }
+
+                if (4 * wallCount == walls.length) {
+                    walls = Arrays.copyOf(walls, Math.max(64, walls.length * 2));
+                }
+                walls[4 * wallCount] = column;
+                walls[4 * wallCount + 1] = row;
+                walls[4 * wallCount + 2] = width;
+                walls[4 * wallCount + 3] = height;
+
+                for (int j = row; j < row + height; j++) {
+                    Arrays.fill(wallAt, j * columns + column, j * columns + column + width, wallCount);
+                }
+                wallCount++;
+                column += width - 1;
+            }
+        }
+    }
+
+    /**
+     * Checks if a span of cells in a row is blocked and not in a wall yet, so a wall can grow over it.
+     *
+     * @param column The first column of the span.
+     * @param row The row of the span.
+     * @param width The number of cells of the span.
+     * @return True if every cell of the span is blocked and in no wall.
+     */
+    private boolean isFreeSpan(int column, int row, int width) {
+        for (int i = column; i < column + width; i++) {
+            if (!isBlocked(i, row) || wallAt[row * columns + i] >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the cell index of the specified coordinate.
+     *
+     * @param coordinate The coordinate.
+     * @return The cell index of the coordinate.
+     */
+    private int cell(double coordinate) { return (int) Math.floor(coordinate / cellSize); }
+
+    /**
+     * Returns the smaller of the value and the clearance of a neighbouring cell increased by one.
+     *
+     * @param value The current value.
+     * @param column The column of the neighbouring cell.
+     * @param row The row of the neighbouring cell.
+     * @return The smaller value.
+     */
+    private short min(short value, int column, int row) {
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return value;
+        }
+        short neighbour = clearance[row * columns + column];
+        return neighbour < value - 1 ? (short) (neighbour + 1) : value;
+    }
+
+}
@@ -0,0 +1,237 @@
+/**
+ * Project name: Robot Simulation
+ * File name: RobotStore.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Stores the state of robots in primitive arrays.
+ */
+
+package ija.project.game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Stores the state of robots in primitive arrays.
+ * Every robot occupies one slot, the robot classes only keep their slot and read and write the arrays,
+ * so moving a robot does not allocate and the robots of a room are laid out next to each other in memory.
+ * Slots are kept in the order in which the robots were added.
+ */
+public class RobotStore {
+
+    /** The robot stays in place in the current tick. */
+    static final byte PROPOSAL_NONE = 0;
+
+    /** The robot proposed a move to a free position. */
+    static final byte PROPOSAL_FREE = 1;
+
+    /** The robot proposed a move to an occupied position. */
+    static final byte PROPOSAL_BLOCKED = 2;
+
+    /** X steps of a robot moving at the angles from 0 to 359 degrees. */
+    private static final double[] STEP_X = new double[360];
+
+    /** Y steps of a robot moving at the angles from 0 to 359 degrees. */
+    private static final double[] STEP_Y = new double[360];
+
+    static {
+        for (int i = 0; i < 360; i++) {
+            STEP_X[i] = Math.cos(Math.toRadians(i));
+            STEP_Y[i] = Math.sin(Math.toRadians(i));
+        }
+    }
+
+    /** X coordinates of the robots. */
+    double[] x;
+
+    /** Y coordinates of the robots. */
+    double[] y;
+
+    /** Angles the robots are heading to. */
+    int[] angle;
+
+    /** Real angles of the robots, which follow the angles to smoothly turn the robots. */
+    int[] realAngle;
+
+    /** Whether the robots are controlled by the user. */
+    boolean[] controlled;
+
+    /** Random streams of the robots. */
+    SplittableRandom[] random;
+
+    /** X coordinates of the positions proposed in the current tick. */
+    double[] proposedX;
+
+    /** Y coordinates of the positions proposed in the current tick. */
+    double[] proposedY;
+
+    /** States of the proposals of the current tick. */
+    byte[] proposal;
+
+    /** Whether the proposals conflict with proposals of robots in lower slots. */
+    boolean[] conflict;
+
+    /** Number of used slots. */
+    private int size = 0;
+
+    /**
+     * Creates a new empty store with the specified initial capacity.
+     *
+     * @param capacity The initial number of slots.
+     */
+    public RobotStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        x = new double[capacity];
+        y = new double[capacity];
+        angle = new int[capacity];
+        realAngle = new int[capacity];
+        controlled = new boolean[capacity];
+        random = new SplittableRandom[capacity];
+        proposedX = new double[capacity];
+        proposedY = new double[capacity];
+        proposal = new byte[capacity];
+        conflict = new boolean[capacity];
+    }
+
+    /**
+     * Adds a robot to the next free slot.
+     *
+     * @param x The X coordinate of the robot.
+     * @param y The Y coordinate of the robot.
+     * @param angle The angle the robot is heading to.
+     * @param realAngle The real angle of the robot.
+     * @param controlled Whether the robot is controlled by the user.
+     * @param random The random stream of the robot.
+     * @return The slot of the robot.
+     */
+    public int add(double x, double y, int angle, int realAngle, boolean controlled, SplittableRandom random) {
+        if (size == this.x.length) {
+            grow(size * 2);
+        }
+
+        this.x[size] = x;
+        this.y[size] = y;
+        this.angle[size] = angle;
+        this.realAngle[size] = realAngle;
+        this.controlled[size] = controlled;
+        this.random[size] = random;
+        this.proposal[size] = PROPOSAL_NONE;
+        this.conflict[size] = false;
+        return size++;
+    }
+
+    /**
+     * Removes the robot in the specified slot, the robots in higher slots move one slot down.
+     *
+     * @param slot The slot to remove.
+     */
+    public void remove(int slot) {
+        int count = size - slot - 1;
+        System.arraycopy(x, slot + 1, x, slot, count);
+        System.arraycopy(y, slot + 1, y, slot, count);
+        System.arraycopy(angle, slot + 1, angle, slot, count);
+        System.arraycopy(realAngle, slot + 1, realAngle, slot, count);
+        System.arraycopy(controlled, slot + 1, controlled, slot, count);
+        System.arraycopy(random, slot + 1, random, slot, count);
+        System.arraycopy(proposedX, slot + 1, proposedX, slot, count);
+        System.arraycopy(proposedY, slot + 1, proposedY, slot, count);
+        System.arraycopy(proposal, slot + 1, proposal, slot, count);
+        System.arraycopy(conflict, slot + 1, conflict, slot, count);
+        size--;
+    }
+
+    /**
+     * Removes all robots from the store.
+     */
+    public void clear() {
+        Arrays.fill(random, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of robots in the store.
+     *
+     * @return The number of robots.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns the X coordinate of the robot in the specified slot.
+     *
+     * @param slot The slot of the robot.
+     * @return The X coordinate of the robot.
+     */
+    public double getX(int slot) { return x[slot]; }
+
+    /**
+     * Returns the Y coordinate of the robot in the specified slot.
+     *
+     * @param slot The slot of the robot.
+     * @return The Y coordinate of the robot.
+     */
+    public double getY(int slot) { return y[slot]; }
+
+    /**
+     * Returns the real angle of the robot in the specified slot.
+     *
+     * @param slot The slot of the robot.
+     * @return The real angle of the robot.
+     */
+    public int getRealAngle(int slot) { return realAngle[slot]; }
+
+    /**
+     * Checks if the robot in the specified slot is controlled by the user.
+     *
+     * @param slot The slot of the robot.
+     * @return True if the robot is controlled, false otherwise.
+     */
+    public boolean isControlled(int slot) { return controlled[slot]; }
+
+    /**
+     * Replaces the random stream of the robot in the specified slot.
+     *
+     * @param slot The slot of the robot.
+     * @param random The new random stream of the robot.
+     */
+    public void setRandom(int slot, SplittableRandom random) { this.random[slot] = random; }
+
+    /**
+     * Returns the X step of a robot moving at the specified angle.
+     *
+     * @param angle The angle in degrees.
+     * @return The X step, the same value as the cosine of the angle.
+     */
+    public static double stepX(int angle) {
+        return angle >= 0 && angle < 360 ? STEP_X[angle] : Math.cos(Math.toRadians(angle));
+    }
+
+    /**
+     * Returns the Y step of a robot moving at the specified angle.
+     *
+     * @param angle The angle in degrees.
+     * @return The Y step, the same value as the sine of the angle.
+     */
+    public static double stepY(int angle) {
+        return angle >= 0 && angle < 360 ? STEP_Y[angle] : Math.sin(Math.toRadians(angle));
+    }
+
+    /**
+     * Enlarges all arrays to the specified capacity.
+     *
+     * @param capacity The new number of slots.
+     */
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        angle = Arrays.copyOf(angle, capacity);
+        realAngle = Arrays.copyOf(realAngle, capacity);
+        controlled = Arrays.copyOf(controlled, capacity);
+        random = Arrays.copyOf(random, capacity);
+        proposedX = Arrays.copyOf(proposedX, capacity);
+        proposedY = Arrays.copyOf(proposedY, capacity);
+        proposal = Arrays.copyOf(proposal, capacity);
+        conflict = Arrays.copyOf(conflict, capacity);
+    }
+
+}
@@ -13,12 +13,31 @@ import ija.project.game.common.Environment;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Represents a room with obstacles and robots.
  */
 public class Room implements Environment {
 
+    /** Size of one robot and one obstacle in pixels. */
+    public static final double ROBOT_SIZE = 30;
+
+    /** Number of columns of a room when the map does not specify it. */
+    public static final int DEFAULT_COLUMNS = 38;
+
+    /** Number of rows of a room when the map does not specify it. */
+    public static final int DEFAULT_ROWS = 22;
+
+    /** Number of columns of the room. */
+    private final int columns;
+
+    /** Number of rows of the room. */
+    private final int rows;
+
+    /** Size of one cell of the room, 1 for rooms in map cells and the robot size for rooms in pixels. */
+    private final double cellSize;
+
     /** List of obstacles in the room. */
     private final List<Obstacle> obstacles = new ArrayList<>();
 
@@ -28,42 +47,80 @@ public class Room implements Environment {
     /** List of controlled robots in the room. */
     private final List<ControlledRobot> controlledRobots = new ArrayList<>();
 
+    /** Occupancy and clearance of the obstacles. */
+    private final ObstacleField obstacleField;
+
+    /** State of all robots in the room. */
+    private final RobotStore robotStore = new RobotStore(16);
+
+    /** Spatial index of all robots in the room, with cells of the size of one cell of the room. */
+    private final SpatialGrid robotGrid;
+
+    /** Seed of the random streams of the robots. */
+    private long seed;
+
+    /** Generator splitting the random streams of the robots added to the room. */
+    private SplittableRandom seeder;
+
+    /**
+     * Constructs a new Room of the default size in map cells with a random seed.
+     */
+    public Room() { this(DEFAULT_COLUMNS, DEFAULT_ROWS, 1); }
+
     /**
-     * Constructs a new Room.
+     * Constructs a new Room of the specified size with a random seed.
+     *
+     * @param columns The number of columns of the room.
+     * @param rows The number of rows of the room.
+     * @param cellSize The size of one cell, 1 for a room in map cells and the robot size for a room in pixels.
      */
-    public Room() {}
+    public Room(int columns, int rows, double cellSize) {
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Room dimensions must be positive");
+        }
+
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.obstacleField = new ObstacleField(columns, rows, cellSize);
+        this.robotGrid = new SpatialGrid(cellSize, robotStore);
+        setSeed(new SplittableRandom().nextLong());
+    }
 
     @Override
     public boolean addObstacle(Obstacle obstacle) {
 
-        if (obstacleAtPosition(obstacle.getPosition().getX(), obstacle.getPosition().getY()) ||
-                robotAtPosition(obstacle.getPosition().getX(), obstacle.getPosition().getY())){
+        double x = obstacle.getPosition().getX();
+        double y = obstacle.getPosition().getY();
+
+        if (!isCell(x, y) || obstacleAtPosition(x, y) || robotAtPosition(x, y)) {
             return false;
         }
 
+        obstacleField.add(x, y);
         return obstacles.add(obstacle);
 
     }
 
     @Override
-    public boolean obstacleAtPosition(double x, double y) {
-        for (Obstacle obstacle : obstacles) {
-
-            if (obstacle.getPosition().getX() == x && obstacle.getPosition().getY() == y) {
-
-                return true;
-
-            }
-
-        }
-        return false;
-    }
+    public boolean obstacleAtPosition(double x, double y) { return obstacleField.obstacleAt(x, y); }
 
     @Override
     public List<Obstacle> getObstacles() { return obstacles; }
 
     @Override
-    public void removeObstacle(Obstacle obstacle) { obstacles.remove(obstacle); }
+    public void removeObstacle(Obstacle obstacle) {
+        if (obstacles.remove(obstacle)) {
+            obstacleField.remove(obstacle.getPosition().getX(), obstacle.getPosition().getY());
+        }
+    }
+
+    /**
+     * Returns the occupancy and clearance field of the obstacles in the room.
+     *
+     * @return The field as an instance of the ObstacleField class.
+     */
+    public ObstacleField getObstacleField() { return obstacleField; }
 
     @Override
     public boolean addRobot(AutomatedRobot robot) {
@@ -74,31 +131,24 @@ public class Room implements Environment {
 
         }
 
+        robotGrid.add(robot.attach(robotStore, seeder.split()));
         return robots.add(robot);
 
     }
 
     @Override
-    public boolean robotAtPosition(double x, double y) {
-
-        for (AutomatedRobot robot : robots) {
-            if (robot.getPosition().getX() == x && robot.getPosition().getY() == y) { return true; }
-        }
-
-        for (ControlledRobot robot : controlledRobots) {
-            if (robot.getPosition().getX() == x && robot.getPosition().getY() == y) { return true; }
-        }
-
-        return false;
-
-    }
+    public boolean robotAtPosition(double x, double y) { return robotGrid.robotAt(x, y); }
 
     @Override
     public List<AutomatedRobot> getRobots() { return robots; }
 
     @Override
     public void removeRobot(AutomatedRobot robot) {
-        robots.remove(robot);
+        if (robots.remove(robot)) {
+            int slot = robot.getSlot();
+            robot.detach();
+            removeSlot(slot);
+        }
     }
 
     @Override
@@ -111,6 +161,7 @@ public class Room implements Environment {
 
         }
 
+        robotGrid.add(robot.attach(robotStore, seeder.split()));
         return controlledRobots.add(robot);
 
     }
@@ -119,6 +170,185 @@ public class Room implements Environment {
     public List<ControlledRobot> getControlledRobots() { return controlledRobots; }
 
     @Override
-    public void removeControlledRobot(ControlledRobot robot) { controlledRobots.remove(robot); }
+    public void removeControlledRobot(ControlledRobot robot) {
+        if (controlledRobots.remove(robot)) {
+            int slot = robot.getSlot();
+            robot.detach();
+            removeSlot(slot);
+        }
+    }
+
+    @Override
+    public void clearRobots() {
+        for (AutomatedRobot robot : robots) {
+            robot.detach();
+        }
+        for (ControlledRobot robot : controlledRobots) {
+            robot.detach();
+        }
+        robots.clear();
+        controlledRobots.clear();
+        robotStore.clear();
+        robotGrid.clear();
+    }
+
+    /**
+     * Sets the seed of the random streams of the robots.
+     * Every robot in the room gets a new stream split in the order of the robot store, robots added later
+     * get the following streams, so the same seed and the same robots always give the same streams.
+     *
+     * @param seed The seed of the random streams.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.seeder = new SplittableRandom(seed);
+        for (int slot = 0; slot < robotStore.size(); slot++) {
+            robotStore.setRandom(slot, seeder.split());
+        }
+    }
+
+    /**
+     * Returns the seed of the random streams of the robots.
+     *
+     * @return The seed of the random streams.
+     */
+    public long getSeed() { return seed; }
+
+    /**
+     * Returns the number of columns of the room.
+     *
+     * @return The number of columns.
+     */
+    public int getColumns() { return columns; }
+
+    /**
+     * Returns the number of rows of the room.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() { return rows; }
+
+    /**
+     * Returns the size of one cell of the room.
+     *
+     * @return The size of one cell, 1 for a room in map cells and the robot size for a room in pixels.
+     */
+    public double getCellSize() { return cellSize; }
+
+    /**
+     * Returns the width of the room in the coordinates of the room.
+     *
+     * @return The width of the room.
+     */
+    public double getWidth() { return columns * cellSize; }
+
+    /**
+     * Returns the height of the room in the coordinates of the room.
+     *
+     * @return The height of the room.
+     */
+    public double getHeight() { return rows * cellSize; }
+
+    /**
+     * Returns the store holding the state of all robots in the room.
+     *
+     * @return The store of the robots as an instance of the RobotStore class.
+     */
+    public RobotStore getRobotStore() { return robotStore; }
+
+    /**
+     * Returns the spatial index of all robots in the room.
+     *
+     * @return The spatial index of the robots as an instance of the SpatialGrid class.
+     */
+    public SpatialGrid getRobotGrid() { return robotGrid; }
+
+    /**
+     * Copies the positions and angles of all robots into arrays without creating any objects.
+     * The automated robots in the order of getRobots are followed by the controlled robots.
+     *
+     * @param x The array to receive the X coordinates.
+     * @param y The array to receive the Y coordinates.
+     * @param angle The array to receive the angles.
+     * @param offset The index of the arrays at which the first robot is stored.
+     */
+    public void copyRobots(double[] x, double[] y, int[] angle, int offset) {
+        for (int i = 0; i < robots.size(); i++, offset++) {
+            AutomatedRobot robot = robots.get(i);
+            x[offset] = robotStore.x[robot.getSlot()];
+            y[offset] = robotStore.y[robot.getSlot()];
+            angle[offset] = robot.getAngle();
+        }
+        for (int i = 0; i < controlledRobots.size(); i++, offset++) {
+            ControlledRobot robot = controlledRobots.get(i);
+            x[offset] = robotStore.x[robot.getSlot()];
+            y[offset] = robotStore.y[robot.getSlot()];
+            angle[offset] = robot.getAngle();
+        }
+    }
+
+    /**
+     * Moves a robot to a replayed state without creating a new robot.
+     * The robot heads in the direction it is turned to, so a resumed simulation continues straight on.
+     *
+     * @param index The index of the robot, the automated robots in the order of getRobots are followed
+     *              by the controlled robots.
+     * @param x The X coordinate of the robot.
+     * @param y The Y coordinate of the robot.
+     * @param angle The angle of the robot.
+     */
+    public void placeRobot(int index, double x, double y, int angle) {
+        int slot = index < robots.size() ? robots.get(index).getSlot() :
+                controlledRobots.get(index - robots.size()).getSlot();
+
+        double previousX = robotStore.x[slot];
+        double previousY = robotStore.y[slot];
+        robotStore.x[slot] = x;
+        robotStore.y[slot] = y;
+        robotStore.angle[slot] = angle;
+        robotStore.realAngle[slot] = angle;
+        robotGrid.move(slot, previousX, previousY);
+    }
+
+    /**
+     * Updates the spatial index after a robot has moved.
+     *
+     * @param slot The slot of the robot that has moved, already at its new position.
+     * @param previousX The X coordinate of the robot before the move.
+     * @param previousY The Y coordinate of the robot before the move.
+     */
+    void robotMoved(int slot, double previousX, double previousY) { robotGrid.move(slot, previousX, previousY); }
+
+    /**
+     * Checks if the position is the corner of a cell inside of the room.
+     *
+     * @param x The X coordinate of the position.
+     * @param y The Y coordinate of the position.
+     * @return True if the position is the corner of a cell of the room, false otherwise.
+     */
+    private boolean isCell(double x, double y) {
+        double column = x / cellSize;
+        double row = y / cellSize;
+        return column == Math.floor(column) && row == Math.floor(row) &&
+                column >= 0 && row >= 0 && column < columns && row < rows;
+    }
+
+    /**
+     * Removes a slot from the robot store and shifts the slots of the remaining robots.
+     *
+     * @param slot The slot to remove.
+     */
+    private void removeSlot(int slot) {
+        robotStore.remove(slot);
+
+        for (AutomatedRobot robot : robots) {
+            robot.slotRemoved(slot);
+        }
+        for (ControlledRobot robot : controlledRobots) {
+            robot.slotRemoved(slot);
+        }
+
+        robotGrid.rebuild();
+    }
 
 }
@@ -0,0 +1,212 @@
+/**
+ * Project name: Robot Simulation
+ * File name: SimulationClock.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Fixed-timestep clock deciding how many ticks of the simulation run in a rendered frame.
+ */
+
+package ija.project.game;
+
+/**
+ * Fixed-timestep clock deciding how many ticks of the simulation run in a rendered frame.
+ * The time elapsed between frames, multiplied by the speed multiplier, is added to an accumulator and one tick
+ * runs for every full tick period in it, so the speed of the simulation does not depend on the frame rate.
+ * A frame never spends more than its time budget on ticks and never runs more than the catch-up limit,
+ * time the simulation could not keep up with is dropped and counted as an overrun instead of piling up.
+ * At the maximal speed the clock ignores the tick rate and runs as many ticks as fit into the time budget.
+ */
+public class SimulationClock {
+
+    /** Multiplier running as many ticks as fit into the time budget of a frame. */
+    public static final int MAX_SPEED = 0;
+
+    /** Multipliers selectable in the view, in the order in which they are cycled. */
+    public static final int[] SPEEDS = {1, 10, 100, MAX_SPEED};
+
+    /** Longest time between two frames taken into account, longer pauses do not have to be caught up. */
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
+
+    /** Length of one tick in nanoseconds. */
+    private final long tickNanos;
+
+    /** Time a frame may spend running ticks in nanoseconds. */
+    private final long budgetNanos;
+
+    /** Maximal number of ticks run in one frame at a fixed multiplier. */
+    private final int maxTicksPerFrame;
+
+    /** Current speed multiplier, MAX_SPEED for the maximal speed. */
+    private int multiplier = 1;
+
+    /** Time of the last frame in nanoseconds, 0 before the first frame. */
+    private long lastTime = 0;
+
+    /** Simulated time not yet consumed by ticks in nanoseconds. */
+    private long accumulator = 0;
+
+    /** Number of ticks run in the last frame. */
+    private int frameTicks = 0;
+
+    /** Whether the last frame could not run all ticks it was due. */
+    private boolean overrun = false;
+
+    /** Number of frames that could not run all ticks they were due. */
+    private long overruns = 0;
+
+    /**
+     * Creates a new clock with the specified tick rate, a time budget of 12 ms and a catch-up limit of 10000 ticks.
+     *
+     * @param ticksPerSecond The number of ticks in one second of real time at the multiplier 1.
+     */
+    public SimulationClock(double ticksPerSecond) {
+        this(ticksPerSecond, 12_000_000L, 10_000);
+    }
+
+    /**
+     * Creates a new clock with the specified tick rate, time budget and catch-up limit.
+     *
+     * @param ticksPerSecond The number of ticks in one second of real time at the multiplier 1.
+     * @param budgetNanos The time a frame may spend running ticks in nanoseconds.
+     * @param maxTicksPerFrame The maximal number of ticks run in one frame at a fixed multiplier.
+     */
+    public SimulationClock(double ticksPerSecond, long budgetNanos, int maxTicksPerFrame) {
+        if (ticksPerSecond <= 0 || budgetNanos <= 0 || maxTicksPerFrame < 1) {
+            throw new IllegalArgumentException("Tick rate, time budget and catch-up limit must be positive");
+        }
+
+        this.tickNanos = Math.max(1, Math.round(1e9 / ticksPerSecond));
+        this.budgetNanos = budgetNanos;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Runs the ticks due since the last frame.
+     *
+     * @param now The time of the frame in nanoseconds, e.g. the time passed to an animation timer.
+     * @param tick The action performing one tick.
+     * @return The number of ticks run.
+     */
+    public int advance(long now, Runnable tick) {
+        long elapsed = lastTime == 0 ? tickNanos : Math.min(now - lastTime, MAX_FRAME_NANOS);
+        lastTime = now;
+
+        long start = System.nanoTime();
+        int ticks = 0;
+        overrun = false;
+
+        if (multiplier == MAX_SPEED) {
+
+            accumulator = 0;
+            do {
+                tick.run();
+                ticks++;
+            } while (System.nanoTime() - start < budgetNanos);
+
+        } else {
+
+            accumulator += Math.max(0, elapsed) * multiplier;
+            while (accumulator >= tickNanos) {
+                if (ticks == maxTicksPerFrame || System.nanoTime() - start >= budgetNanos) {
+                    overrun = true;
+                    accumulator = 0;
+                    break;
+                }
+
+                tick.run();
+                accumulator -= tickNanos;
+                ticks++;
+            }
+
+        }
+
+        if (overrun) {
+            overruns++;
+        }
+        frameTicks = ticks;
+        return ticks;
+    }
+
+    /**
+     * Forgets the time of the last frame and the accumulated time, e.g. after the simulation was paused.
+     */
+    public void reset() {
+        lastTime = 0;
+        accumulator = 0;
+        frameTicks = 0;
+        overrun = false;
+    }
+
+    /**
+     * Sets the speed multiplier.
+     *
+     * @param multiplier The number of ticks run per tick period, MAX_SPEED for the maximal speed.
+     */
+    public void setMultiplier(int multiplier) {
+        if (multiplier < 0) {
+            throw new IllegalArgumentException("Multiplier must not be negative");
+        }
+        this.multiplier = multiplier;
+        this.accumulator = 0;
+    }
+
+    /**
+     * Switches to the next multiplier of SPEEDS, after the maximal speed the clock returns to 1.
+     *
+     * @return The new multiplier.
+     */
+    public int nextSpeed() {
+        int next = SPEEDS[0];
+        for (int i = 0; i < SPEEDS.length - 1; i++) {
+            if (SPEEDS[i] == multiplier) {
+                next = SPEEDS[i + 1];
+            }
+        }
+        setMultiplier(next);
+        return next;
+    }
+
+    /**
+     * Returns the current speed multiplier.
+     *
+     * @return The multiplier, MAX_SPEED for the maximal speed.
+     */
+    public int getMultiplier() { return multiplier; }
+
+    /**
+     * Returns the length of one tick of real time at the multiplier 1.
+     *
+     * @return The length of one tick in nanoseconds.
+     */
+    public long getTickNanos() { return tickNanos; }
+
+    /**
+     * Returns the speed as a text shown to the user.
+     *
+     * @return The multiplier followed by x, or max for the maximal speed.
+     */
+    public String getSpeedLabel() { return multiplier == MAX_SPEED ? "max" : multiplier + "x"; }
+
+    /**
+     * Returns the number of ticks run in the last frame.
+     *
+     * @return The number of ticks.
+     */
+    public int getFrameTicks() { return frameTicks; }
+
+    /**
+     * Checks if the last frame could not run all ticks it was due.
+     *
+     * @return True if the simulation did not keep up with the speed in the last frame, false otherwise.
+     */
+    public boolean isOverrun() { return overrun; }
+
+    /**
+     * Returns the number of frames that could not run all ticks they were due.
+     *
+     * @return The number of overrun frames.
+     */
+    public long getOverruns() { return overruns; }
+
+}
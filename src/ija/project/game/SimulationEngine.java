@@ -0,0 +1,230 @@
+/**
+ * Project name: Robot Simulation
+ * File name: SimulationEngine.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Advances the simulation of a room independently of any view.
+ */
+
+package ija.project.game;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Advances the simulation of a room independently of any view.
+ * The engine does not depend on JavaFX, so it can run without a display and as fast as the machine allows.
+ * Automated robots move in three phases: every robot proposes a move from the state of the previous tick,
+ * conflicting proposals are rejected in favour of the robot in the lower store slot, and the moves are committed
+ * in the order of the robots. The first two phases run in parallel and the result does not depend
+ * on the number of threads.
+ */
+public class SimulationEngine {
+
+    /** Number of robots handled by one parallel task. */
+    private static final int BATCH_SIZE = 512;
+
+    /** Room of the simulation. */
+    private final Room room;
+
+    /** Number of ticks performed since the engine was created. */
+    private long tick = 0;
+
+    /** Direction in which the controlled robots turn, 1 for right, -1 for left, 0 for no turn. */
+    private int turn = 0;
+
+    /** Whether the controlled robots move forward. */
+    private boolean moving = false;
+
+    /** Pool running the parallel phases of a tick, null if the engine runs on the calling thread. */
+    private ForkJoinPool pool = null;
+
+    /** Proposes the move of the automated robot at an index. */
+    private final IntConsumer propose;
+
+    /** Resolves the conflicts of the automated robot at an index. */
+    private final IntConsumer resolveConflicts;
+
+    /**
+     * Creates a new engine for the specified room.
+     *
+     * @param room The room to simulate as an instance of the Room class, in pixel coordinates.
+     */
+    public SimulationEngine(Room room) {
+        this.room = room;
+        this.propose = i -> room.getRobots().get(i).propose();
+        this.resolveConflicts = i -> room.getRobots().get(i).resolveConflicts();
+    }
+
+    /**
+     * Performs one tick of the simulation.
+     * Automated robots move first, then the controlled robots turn and move according to the input.
+     */
+    public void tick() {
+
+        room.getObstacleField().update();
+
+        List<AutomatedRobot> robots = room.getRobots();
+
+        forEach(robots.size(), propose);
+        forEach(robots.size(), resolveConflicts);
+
+        for (int i = 0; i < robots.size(); i++) {
+            robots.get(i).commit();
+        }
+
+        List<ControlledRobot> controlledRobots = room.getControlledRobots();
+
+        if (turn != 0) {
+            for (int i = 0; i < controlledRobots.size(); i++) {
+                controlledRobots.get(i).turn(turn);
+            }
+        }
+
+        if (moving) {
+            for (int i = 0; i < controlledRobots.size(); i++) {
+                controlledRobots.get(i).move();
+            }
+        }
+
+        tick++;
+
+    }
+
+    /**
+     * Performs the specified number of ticks of the simulation.
+     *
+     * @param count The number of ticks to perform.
+     */
+    public void tick(long count) {
+        for (long i = 0; i < count; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Sets the number of threads running the parallel phases of a tick.
+     *
+     * @param threads The number of threads, 1 runs everything on the calling thread.
+     */
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+
+        shutdown();
+        if (threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+    }
+
+    /**
+     * Stops the threads of the engine, further ticks run on the calling thread.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Sets the seed of the random streams of the robots, the same seed and input always give the same run.
+     *
+     * @param seed The seed of the random streams.
+     */
+    public void setSeed(long seed) { room.setSeed(seed); }
+
+    /**
+     * Sets the direction in which the controlled robots turn on every tick.
+     *
+     * @param turn The direction, 1 for right, -1 for left, 0 for no turn.
+     */
+    public void setTurn(int turn) { this.turn = turn; }
+
+    /**
+     * Sets whether the controlled robots move forward on every tick.
+     *
+     * @param moving True if the controlled robots move, false otherwise.
+     */
+    public void setMoving(boolean moving) { this.moving = moving; }
+
+    /**
+     * Returns the room of the simulation.
+     *
+     * @return The room as an instance of the Room class.
+     */
+    public Room getRoom() { return room; }
+
+    /**
+     * Returns the number of ticks performed since the engine was created.
+     *
+     * @return The number of performed ticks.
+     */
+    public long getTick() { return tick; }
+
+    /**
+     * Runs the action for every index from zero to the count, in parallel if the engine has a pool.
+     *
+     * @param count The number of indexes.
+     * @param action The action to run for every index.
+     */
+    private void forEach(int count, IntConsumer action) {
+        if (pool == null || count <= BATCH_SIZE) {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+        } else {
+            pool.invoke(new RangeAction(0, count, action));
+        }
+    }
+
+    /**
+     * Parallel task running an action for a range of indexes.
+     */
+    private static class RangeAction extends RecursiveAction {
+
+        /** Version of the serialized form, required of a RecursiveAction although the task is never serialized. */
+        private static final long serialVersionUID = 1L;
+
+        /** First index of the range. */
+        private final int from;
+
+        /** Index after the last index of the range. */
+        private final int to;
+
+        /** The action to run for every index. */
+        private final IntConsumer action;
+
+        /**
+         * Creates a new task for the specified range.
+         *
+         * @param from The first index of the range.
+         * @param to The index after the last index of the range.
+         * @param action The action to run for every index.
+         */
+        RangeAction(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, middle, action), new RangeAction(middle, to, action));
+        }
+
+    }
+
+}
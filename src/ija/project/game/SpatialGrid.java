@@ -0,0 +1,281 @@
+/**
+ * Project name: Robot Simulation
+ * File name: SpatialGrid.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Uniform spatial hash grid used to find robots near a position.
+ */
+
+package ija.project.game;
+
+import java.util.Arrays;
+
+/**
+ * Uniform spatial hash grid used to find robots near a position.
+ * The world is split into square cells of a fixed size and every cell is hashed into a bucket,
+ * so a query only has to visit the buckets of the cells around the queried position.
+ * The grid indexes all slots of a robot store and keeps the buckets as linked lists in int arrays,
+ * so neither queries nor updates allocate.
+ */
+public class SpatialGrid {
+
+    /** Initial number of buckets, must be a power of two. */
+    private static final int INITIAL_BUCKETS = 64;
+
+    /** Marks the end of a bucket list. */
+    private static final int NONE = -1;
+
+    /** Size of one cell of the grid. */
+    private final double cellSize;
+
+    /** The store holding the coordinates of the indexed slots. */
+    private final RobotStore store;
+
+    /** First slot of every bucket. */
+    private int[] heads;
+
+    /** Next slot in the bucket of every slot. */
+    private int[] next = new int[0];
+
+    /** Previous slot in the bucket of every slot. */
+    private int[] previous = new int[0];
+
+    /** Bucket of every slot. */
+    private int[] bucketOf = new int[0];
+
+    /** Mask used to map a hash to a bucket index. */
+    private int mask;
+
+    /** Number of slots in the grid. */
+    private int size = 0;
+
+    /**
+     * Creates a new empty grid with the specified cell size.
+     *
+     * @param cellSize The size of one cell of the grid.
+     * @param store The store holding the coordinates of the indexed slots.
+     */
+    public SpatialGrid(double cellSize, RobotStore store) {
+        this.cellSize = cellSize;
+        this.store = store;
+        this.heads = new int[INITIAL_BUCKETS];
+        this.mask = INITIAL_BUCKETS - 1;
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * Adds the last slot of the store to the grid at its current position.
+     *
+     * @param slot The slot to add, slots have to be added in the order of the store.
+     */
+    public void add(int slot) {
+        if (slot >= next.length) {
+            int capacity = Math.max(slot + 1, next.length * 2);
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            bucketOf = Arrays.copyOf(bucketOf, capacity);
+        }
+
+        size++;
+        if (size > heads.length) {
+            rehash(heads.length * 2);
+        } else {
+            link(slot, bucket(store.x[slot], store.y[slot]));
+        }
+    }
+
+    /**
+     * Updates the cell of a slot after its robot has moved.
+     *
+     * @param slot The slot of the robot, already at its new position.
+     * @param previousX The X coordinate of the robot before the move.
+     * @param previousY The Y coordinate of the robot before the move.
+     */
+    public void move(int slot, double previousX, double previousY) {
+        if (cell(previousX) == cell(store.x[slot]) && cell(previousY) == cell(store.y[slot])) {
+            return;
+        }
+
+        int bucket = bucket(store.x[slot], store.y[slot]);
+        if (bucket != bucketOf[slot]) {
+            unlink(slot);
+            link(slot, bucket);
+        }
+    }
+
+    /**
+     * Rebuilds the grid from all slots of the store, needed after slots of the store were shifted.
+     */
+    public void rebuild() {
+        clear();
+        for (int slot = 0; slot < store.size(); slot++) {
+            add(slot);
+        }
+    }
+
+    /**
+     * Removes all slots from the grid.
+     */
+    public void clear() {
+        Arrays.fill(heads, NONE);
+        size = 0;
+    }
+
+    /**
+     * Checks if a robot is exactly at the specified position.
+     *
+     * @param x The X coordinate of the position.
+     * @param y The Y coordinate of the position.
+     * @return True if a robot is at the specified position, false otherwise.
+     */
+    public boolean robotAt(double x, double y) {
+        for (int slot = heads[bucket(x, y)]; slot != NONE; slot = next[slot]) {
+            if (store.x[slot] == x && store.y[slot] == y) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if any robot other than the ignored one is closer than the specified distance.
+     * The distance has to be at most the cell size, only the neighbouring cells are visited.
+     *
+     * @param x The X coordinate of the position.
+     * @param y The Y coordinate of the position.
+     * @param distance The maximal distance between two positions at which robots overlap.
+     * @param ignored The slot of the robot to ignore.
+     * @return True if any other robot overlaps the position, false otherwise.
+     */
+    public boolean overlaps(double x, double y, double distance, int ignored) {
+        int cellX = cell(x);
+        int cellY = cell(y);
+
+        for (int i = cellX - 1; i <= cellX + 1; i++) {
+            for (int j = cellY - 1; j <= cellY + 1; j++) {
+                for (int slot = heads[hash(i, j) & mask]; slot != NONE; slot = next[slot]) {
+                    if (slot != ignored && Collision.circlesOverlap(x, y, store.x[slot], store.y[slot], distance)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the proposal of a robot overlaps the free proposal of a neighbouring robot in a lower slot.
+     * Robots are still indexed at their positions from the previous tick, which are at most one step
+     * away from their proposals, so the neighbouring cells contain all candidates.
+     *
+     * @param robot The slot of the robot whose proposal to check.
+     * @param distance The maximal distance between two positions at which robots overlap.
+     * @return True if the proposal conflicts with a proposal of a robot in a lower slot, false otherwise.
+     */
+    public boolean proposalConflicts(int robot, double distance) {
+        double x = store.proposedX[robot];
+        double y = store.proposedY[robot];
+        int cellX = cell(x);
+        int cellY = cell(y);
+
+        for (int i = cellX - 1; i <= cellX + 1; i++) {
+            for (int j = cellY - 1; j <= cellY + 1; j++) {
+                for (int slot = heads[hash(i, j) & mask]; slot != NONE; slot = next[slot]) {
+                    if (slot < robot && store.proposal[slot] == RobotStore.PROPOSAL_FREE &&
+                            Collision.circlesOverlap(x, y, store.proposedX[slot], store.proposedY[slot], distance)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of slots in the grid.
+     *
+     * @return The number of slots in the grid.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns the cell index of the specified coordinate.
+     *
+     * @param coordinate The coordinate.
+     * @return The cell index of the coordinate.
+     */
+    private int cell(double coordinate) { return (int) Math.floor(coordinate / cellSize); }
+
+    /**
+     * Returns the bucket of the cell containing the specified position.
+     *
+     * @param x The X coordinate of the position.
+     * @param y The Y coordinate of the position.
+     * @return The index of the bucket.
+     */
+    private int bucket(double x, double y) { return hash(cell(x), cell(y)) & mask; }
+
+    /**
+     * Hashes the cell coordinates.
+     *
+     * @param cellX The X index of the cell.
+     * @param cellY The Y index of the cell.
+     * @return The hash of the cell.
+     */
+    private static int hash(int cellX, int cellY) {
+        int h = cellX * 73856093 ^ cellY * 19349663;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Inserts a slot at the head of a bucket.
+     *
+     * @param slot The slot to insert.
+     * @param bucket The index of the bucket.
+     */
+    private void link(int slot, int bucket) {
+        int head = heads[bucket];
+        next[slot] = head;
+        previous[slot] = NONE;
+        if (head != NONE) {
+            previous[head] = slot;
+        }
+        heads[bucket] = slot;
+        bucketOf[slot] = bucket;
+    }
+
+    /**
+     * Removes a slot from its bucket.
+     *
+     * @param slot The slot to remove.
+     */
+    private void unlink(int slot) {
+        if (previous[slot] != NONE) {
+            next[previous[slot]] = next[slot];
+        } else {
+            heads[bucketOf[slot]] = next[slot];
+        }
+        if (next[slot] != NONE) {
+            previous[next[slot]] = previous[slot];
+        }
+    }
+
+    /**
+     * Redistributes all indexed slots into the specified number of buckets.
+     *
+     * @param count The new number of buckets, must be a power of two.
+     */
+    private void rehash(int count) {
+        heads = new int[count];
+        mask = count - 1;
+        Arrays.fill(heads, NONE);
+
+        for (int slot = 0; slot < size; slot++) {
+            link(slot, bucket(store.x[slot], store.y[slot]));
+        }
+    }
+
+}
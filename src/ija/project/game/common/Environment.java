@@ -104,4 +104,9 @@ public interface Environment {
      */
     void removeControlledRobot(ControlledRobot robot);
 
+    /**
+     * Removes all robots and controlled robots from the room.
+     */
+    void clearRobots();
+
 }
@@ -23,12 +23,14 @@ public class Converter {
 
     /**
      * Converts coordinates of the room.
+     * The converted room keeps the dimensions and the seed of the room, its cells have the size of one robot.
      *
      * @param room The room to convert as an instance of the Room class.
      * @return The room with converted coordinates.
      */
     public Room convertCoords(Room room) {
-        Room newRoom = new Room();
+        Room newRoom = new Room(room.getColumns(), room.getRows(), Room.ROBOT_SIZE);
+        newRoom.setSeed(room.getSeed());
 
         for (Obstacle obstacle : room.getObstacles()) {
             newRoom.addObstacle(new Obstacle(new Position(obstacle.getPosition().getX() * 30, obstacle.getPosition().getY() * 30)));
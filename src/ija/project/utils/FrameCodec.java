@@ -0,0 +1,553 @@
+/**
+ * Project name: Robot Simulation
+ * File name: FrameCodec.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Encodes frames of the binary log as keyframes and deltas and decodes them back.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.RobotStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes frames of the binary log as keyframes and deltas and decodes them back.
+ * The log starts with a header of HEADER_SIZE bytes: the magic number, the version of the format and the short
+ * keyframe interval the log was written with, which is 0 in logs written before it was recorded. Every frame is the byte type, the varint length of its body and the body.
+ * <p>
+ * Coordinates are quantized to 1/QUANTUM of a pixel. Besides the position and the angle, the codec keeps
+ * for every robot whether it moves and whether it spins by one degree per tick, and predicts the next state
+ * the way the robots move: the angle changes by the spin and a moving robot steps one pixel in the direction
+ * of its new angle. A keyframe holds the int id, the varint numbers of automated and controlled robots and
+ * for every robot the quantized int x and y, the short angle and the byte flags. A delta holds the int id
+ * followed by records up to the end of the body, only robots whose state differs from the prediction get
+ * a record: the varint gap to the previous record, the flags and, if the flags say so, the zigzag varint
+ * residuals of the position and of the angle against the prediction.
+ * <p>
+ * The ids of the frames are the ticks they were taken at and may leave gaps when not every tick is logged.
+ * The prediction then repeats the motion of one tick for every tick of the gap, so a robot moving or spinning
+ * steadily costs nothing however far apart the frames are. A frame whose id does not follow the previous one
+ * is a keyframe.
+ * <p>
+ * The encoder predicts from the state the decoder will reconstruct, not from the real state, so the error
+ * of a replayed position never exceeds one quantum. Every frame whose index is a multiple of the keyframe
+ * interval is a keyframe, so the keyframe of any frame is found from the index alone. A keyframe is also
+ * written whenever the number of robots changes and after the codec is reset.
+ */
+public class FrameCodec {
+
+    /** Magic number at the start of every binary log, the characters RLOG. */
+    public static final int MAGIC = 0x524C4F47;
+
+    /** Version of the format. */
+    public static final short VERSION = 3;
+
+    /** Oldest version of the format which can be read, its frames have consecutive ids. */
+    public static final short MIN_VERSION = 2;
+
+    /** Size of the header of the log in bytes. */
+    public static final int HEADER_SIZE = 8;
+
+    /** Type of a frame holding the full state. */
+    public static final byte KEYFRAME = 1;
+
+    /** Type of a frame holding the changes against the previous frame. */
+    public static final byte DELTA = 2;
+
+    /** Number of quanta in one pixel. */
+    private static final double QUANTUM = 256;
+
+    /** Largest difference between a prediction and the real position which is not recorded. */
+    private static final double TOLERANCE = 1 / QUANTUM;
+
+    /** Flag of a moving robot. */
+    private static final int MOVING = 1;
+
+    /** Flag of a robot turning right by one degree per tick. */
+    private static final int SPIN_RIGHT = 2;
+
+    /** Flag of a robot turning left by one degree per tick. */
+    private static final int SPIN_LEFT = 4;
+
+    /** Flag of a record with a position residual. */
+    private static final int POSITION = 8;
+
+    /** Flag of a record with an angle residual. */
+    private static final int ANGLE = 16;
+
+    /** Number of frames from one keyframe to the next one. */
+    private final int keyframeInterval;
+
+    /** Reconstructed X coordinates of the robots. */
+    private double[] x = new double[16];
+
+    /** Reconstructed Y coordinates of the robots. */
+    private double[] y = new double[16];
+
+    /** Reconstructed angles of the robots. */
+    private int[] angle = new int[16];
+
+    /** Motion flags of the robots. */
+    private byte[] flags = new byte[16];
+
+    /** Number of automated robots in the state, -1 if there is no state. */
+    private int robots = -1;
+
+    /** Number of controlled robots in the state. */
+    private int controlledRobots = 0;
+
+    /** The id of the frame of the state. */
+    private int lastId = 0;
+
+    /** X coordinate predicted by the last call of predict. */
+    private double predictedX;
+
+    /** Y coordinate predicted by the last call of predict. */
+    private double predictedY;
+
+    /** Angle predicted by the last call of predict. */
+    private int predictedAngle;
+
+    /** Body of the frame being encoded. */
+    private ByteBuffer body = ByteBuffer.allocate(1 << 12);
+
+    /**
+     * Creates a new codec without any state, the first encoded frame is a keyframe.
+     *
+     * @param keyframeInterval The number of frames from one keyframe to the next one.
+     */
+    public FrameCodec(int keyframeInterval) {
+        if (keyframeInterval < 1 || keyframeInterval > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Keyframe interval must be between 1 and " + Short.MAX_VALUE);
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Writes the header of a log.
+     *
+     * @param buffer The buffer to write to.
+     * @param keyframeInterval The number of frames from one keyframe to the next one in the log.
+     */
+    public static void writeHeader(ByteBuffer buffer, int keyframeInterval) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) keyframeInterval);
+    }
+
+    /**
+     * Reads and checks the header of a log.
+     *
+     * @param buffer The buffer to read from.
+     * @return The keyframe interval the log was written with, 0 if the log does not record it.
+     * @throws IOException If the buffer does not start with the header of a binary log of a known version.
+     */
+    public static int readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary log");
+        }
+        short version = buffer.getShort();
+        short keyframeInterval = buffer.getShort();
+        if (version < MIN_VERSION || version > VERSION) {
+            throw new IOException("Unsupported log version " + version);
+        }
+        if (keyframeInterval < 0) {
+            throw new IOException("Corrupted log header");
+        }
+        return keyframeInterval;
+    }
+
+    /**
+     * Returns the size of the frame starting at the position of the buffer, the position is not changed.
+     *
+     * @param buffer The buffer holding the frame.
+     * @return The size of the frame in bytes.
+     * @throws IOException If the buffer does not hold the whole frame.
+     */
+    public static int sizeAt(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        try {
+            byte type = buffer.get();
+            if (type != KEYFRAME && type != DELTA) {
+                throw new IOException("Unknown frame type " + type);
+            }
+            long length = getVarLong(buffer);
+            long size = buffer.position() - start + length;
+            if (length < 0 || size > buffer.limit() - start) {
+                throw new IOException("Truncated frame");
+            }
+            return (int) size;
+        } catch (RuntimeException e) {
+            throw new IOException("Truncated frame", e);
+        } finally {
+            buffer.position(start);
+        }
+    }
+
+    /**
+     * Returns the id of the frame starting at the position of the buffer, the position is not changed.
+     *
+     * @param buffer The buffer holding the frame.
+     * @return The id of the frame.
+     * @throws IOException If the buffer does not hold the start of a frame.
+     */
+    public static int idAt(ByteBuffer buffer) throws IOException {
+        ByteBuffer header = buffer.duplicate();
+        try {
+            header.get();
+            getVarLong(header);
+            return header.getInt();
+        } catch (RuntimeException e) {
+            throw new IOException("Truncated frame", e);
+        }
+    }
+
+    /**
+     * Returns the type of the frame starting at the position of the buffer, the position is not changed.
+     *
+     * @param buffer The buffer holding the frame.
+     * @return KEYFRAME or DELTA.
+     */
+    public static byte typeAt(ByteBuffer buffer) { return buffer.get(buffer.position()); }
+
+    /**
+     * Forgets the state, the next encoded frame is a keyframe and the next decoded frame has to be one.
+     */
+    public void reset() {
+        robots = -1;
+        controlledRobots = 0;
+    }
+
+    /**
+     * Returns the number of frames from one keyframe to the next one.
+     *
+     * @return The keyframe interval.
+     */
+    public int getKeyframeInterval() { return keyframeInterval; }
+
+    /**
+     * Encodes the frame against the state of the previous encoded or decoded frame.
+     *
+     * @param frame The frame to encode.
+     * @param index The index of the frame in the log.
+     * @return The buffer holding the encoded frame between its position and limit, valid until the next call.
+     */
+    public ByteBuffer encode(LogFrame frame, int index) {
+        int gap = frame.getId() - lastId;
+        boolean keyframe = robots != frame.getRobotCount() || controlledRobots != frame.getControlledRobotCount() ||
+                index % keyframeInterval == 0 || gap < 1;
+        int count = frame.size();
+
+        ensureCapacity(count);
+        body.clear();
+        body.position(6);
+        body.putInt(frame.getId());
+
+        if (keyframe) {
+            boolean known = robots >= 0 && robots + controlledRobots == count;
+            putVarLong(body, frame.getRobotCount());
+            putVarLong(body, frame.getControlledRobotCount());
+
+            for (int i = 0; i < count; i++) {
+                long qx = Math.round(frame.getX(i) * QUANTUM);
+                long qy = Math.round(frame.getY(i) * QUANTUM);
+                if (qx != (int) qx || qy != (int) qy) {
+                    throw new IllegalArgumentException("Robot position out of range");
+                }
+
+                int motion = known && gap >= 1 ? motion(i, frame.getX(i), frame.getY(i), frame.getAngle(i), gap) : 0;
+                body.putInt((int) qx);
+                body.putInt((int) qy);
+                body.putShort((short) frame.getAngle(i));
+                body.put((byte) motion);
+
+                x[i] = qx / QUANTUM;
+                y[i] = qy / QUANTUM;
+                angle[i] = frame.getAngle(i);
+                flags[i] = (byte) motion;
+            }
+
+            robots = frame.getRobotCount();
+            controlledRobots = frame.getControlledRobotCount();
+
+        } else {
+
+            int previous = -1;
+
+            for (int i = 0; i < count; i++) {
+                predict(i, flags[i], gap);
+
+                if (predictedAngle == frame.getAngle(i) && Math.abs(frame.getX(i) - predictedX) <= TOLERANCE &&
+                        Math.abs(frame.getY(i) - predictedY) <= TOLERANCE) {
+                    x[i] = predictedX;
+                    y[i] = predictedY;
+                    angle[i] = predictedAngle;
+                    continue;
+                }
+
+                int motion = motion(i, frame.getX(i), frame.getY(i), frame.getAngle(i), gap);
+                predict(i, motion, gap);
+
+                long residualX = Math.round((frame.getX(i) - predictedX) * QUANTUM);
+                long residualY = Math.round((frame.getY(i) - predictedY) * QUANTUM);
+                int residualAngle = frame.getAngle(i) - predictedAngle;
+                int recordFlags = motion | (residualX != 0 || residualY != 0 ? POSITION : 0) |
+                        (residualAngle != 0 ? ANGLE : 0);
+
+                putVarLong(body, i - previous - 1);
+                body.put((byte) recordFlags);
+                if ((recordFlags & POSITION) != 0) {
+                    putVarLong(body, zigzag(residualX));
+                    putVarLong(body, zigzag(residualY));
+                }
+                if ((recordFlags & ANGLE) != 0) {
+                    putVarLong(body, zigzag(residualAngle));
+                }
+
+                x[i] = predictedX + residualX / QUANTUM;
+                y[i] = predictedY + residualY / QUANTUM;
+                angle[i] = frame.getAngle(i);
+                flags[i] = (byte) motion;
+                previous = i;
+            }
+        }
+
+        lastId = frame.getId();
+
+        // the body was written after a gap of six bytes, the type and the length are put right before it
+        int end = body.position();
+        int length = end - 6;
+        int start = 6 - 1 - varLongSize(length);
+        body.position(start);
+        body.put(keyframe ? KEYFRAME : DELTA);
+        putVarLong(body, length);
+        body.position(start);
+        body.limit(end);
+        return body;
+    }
+
+    /**
+     * Decodes the frame starting at the position of the buffer.
+     * Decoding updates the state exactly as encoding the same frame did, so an encoder can continue a log
+     * after decoding its last frame.
+     *
+     * @param buffer The buffer to read from, its position moves after the frame.
+     * @param frame The frame to fill.
+     * @throws IOException If the buffer does not hold a whole frame, or a delta does not follow a decoded frame.
+     */
+    public void decode(ByteBuffer buffer, LogFrame frame) throws IOException {
+        int end = buffer.position() + sizeAt(buffer);
+        byte type = buffer.get();
+        getVarLong(buffer);
+
+        try {
+            int id = buffer.getInt();
+
+            if (type == KEYFRAME) {
+
+                int automated = (int) getVarLong(buffer);
+                int controlled = (int) getVarLong(buffer);
+                if (automated < 0 || controlled < 0) {
+                    throw new IOException("Corrupted keyframe");
+                }
+
+                ensureCapacity(automated + controlled);
+                for (int i = 0; i < automated + controlled; i++) {
+                    x[i] = buffer.getInt() / QUANTUM;
+                    y[i] = buffer.getInt() / QUANTUM;
+                    angle[i] = buffer.getShort();
+                    flags[i] = buffer.get();
+                }
+                robots = automated;
+                controlledRobots = controlled;
+
+            } else {
+
+                if (robots < 0) {
+                    throw new IOException("Delta frame without a keyframe");
+                }
+
+                int gap = id - lastId;
+                if (gap < 1) {
+                    throw new IOException("Delta frame not following the previous frame");
+                }
+
+                int count = robots + controlledRobots;
+                int next = buffer.position() < end ? (int) getVarLong(buffer) : count;
+
+                for (int i = 0; i < count; i++) {
+                    if (next == i) {
+                        int recordFlags = buffer.get();
+                        predict(i, recordFlags, gap);
+
+                        if ((recordFlags & POSITION) != 0) {
+                            predictedX += unzigzag(getVarLong(buffer)) / QUANTUM;
+                            predictedY += unzigzag(getVarLong(buffer)) / QUANTUM;
+                        }
+                        if ((recordFlags & ANGLE) != 0) {
+                            predictedAngle += (int) unzigzag(getVarLong(buffer));
+                        }
+
+                        x[i] = predictedX;
+                        y[i] = predictedY;
+                        angle[i] = predictedAngle;
+                        flags[i] = (byte) (recordFlags & (MOVING | SPIN_RIGHT | SPIN_LEFT));
+                        next = buffer.position() < end ? i + 1 + (int) getVarLong(buffer) : count;
+                    } else {
+                        predict(i, flags[i], gap);
+                        x[i] = predictedX;
+                        y[i] = predictedY;
+                        angle[i] = predictedAngle;
+                    }
+                }
+            }
+
+            if (buffer.position() != end) {
+                throw new IOException("Corrupted frame");
+            }
+            lastId = id;
+
+            frame.clear(id);
+            for (int i = 0; i < robots; i++) {
+                frame.addRobot(x[i], y[i], angle[i]);
+            }
+            for (int i = robots; i < robots + controlledRobots; i++) {
+                frame.addControlledRobot(x[i], y[i], angle[i]);
+            }
+
+        } catch (RuntimeException e) {
+            reset();
+            throw new IOException("Corrupted frame", e);
+        }
+    }
+
+    /**
+     * Derives the motion flags of a robot from its reconstructed state and its real state.
+     *
+     * @param index The index of the robot.
+     * @param realX The real X coordinate of the robot.
+     * @param realY The real Y coordinate of the robot.
+     * @param realAngle The real angle of the robot.
+     * @param gap The number of ticks between the reconstructed state and the real state.
+     * @return The motion flags.
+     */
+    private int motion(int index, double realX, double realY, int realAngle, int gap) {
+        int turn = Math.floorMod(realAngle - angle[index] + 180, 360) - 180;
+        boolean moving = Math.abs(realX - x[index]) > TOLERANCE || Math.abs(realY - y[index]) > TOLERANCE;
+        return (moving ? MOVING : 0) | (turn == gap ? SPIN_RIGHT : 0) | (turn == -gap ? SPIN_LEFT : 0);
+    }
+
+    /**
+     * Predicts the state of a robot after the specified number of ticks into predictedX, predictedY
+     * and predictedAngle. Every tick the angle changes by the spin and a moving robot steps one pixel
+     * in the direction of its new angle.
+     *
+     * @param index The index of the robot.
+     * @param motion The motion flags.
+     * @param gap The number of ticks.
+     */
+    private void predict(int index, int motion, int gap) {
+        int turn = (motion & SPIN_RIGHT) != 0 ? 1 : (motion & SPIN_LEFT) != 0 ? 359 : 0;
+        predictedAngle = angle[index];
+        predictedX = x[index];
+        predictedY = y[index];
+        for (int tick = 0; tick < gap; tick++) {
+            predictedAngle = (predictedAngle + turn) % 360;
+            if ((motion & MOVING) != 0) {
+                predictedX += RobotStore.stepX(predictedAngle);
+                predictedY += RobotStore.stepY(predictedAngle);
+            }
+        }
+    }
+
+    /**
+     * Enlarges the state and the body buffer for the specified number of robots.
+     *
+     * @param count The number of robots.
+     */
+    private void ensureCapacity(int count) {
+        if (count > x.length) {
+            int capacity = Math.max(count, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            angle = Arrays.copyOf(angle, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+
+        // a keyframe takes 11 bytes per robot, a record of a delta at most 31 bytes
+        long needed = 32 + 31L * count;
+        if (needed > body.capacity()) {
+            body = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, body.capacity() * 2L)));
+        }
+    }
+
+    /**
+     * Writes an unsigned varint, seven bits per byte with the lowest bits first.
+     *
+     * @param buffer The buffer to write to.
+     * @param value The non-negative value.
+     */
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @param buffer The buffer to read from.
+     * @return The value.
+     * @throws IOException If the varint is longer than ten bytes.
+     */
+    static long getVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Returns the number of bytes of an unsigned varint.
+     *
+     * @param value The non-negative value.
+     * @return The number of bytes.
+     */
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Maps a signed value to an unsigned one, small magnitudes to small values.
+     *
+     * @param value The signed value.
+     * @return The unsigned value.
+     */
+    private static long zigzag(long value) { return (value << 1) ^ (value >> 63); }
+
+    /**
+     * Maps an unsigned value back to the signed one.
+     *
+     * @param value The unsigned value.
+     * @return The signed value.
+     */
+    private static long unzigzag(long value) { return (value >>> 1) ^ -(value & 1); }
+
+}
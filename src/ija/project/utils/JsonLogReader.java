@@ -0,0 +1,208 @@
+/**
+ * Project name: Robot Simulation
+ * File name: JsonLogReader.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Reads the frames of a JSON log one at a time.
+ */
+
+package ija.project.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the frames of a JSON log one at a time.
+ * The log is an array of frames, every frame holds its id and the objects robots and controlledRobots mapping
+ * robot0, robot1, ... to the x, y and angle of the robot, the members may come in any order. The log is parsed
+ * by a JsonReader while it is read, so only one frame is held in memory whatever the size of the log.
+ */
+public class JsonLogReader implements Closeable {
+
+    /** The reader of the log. */
+    private final JsonReader reader;
+
+    /** The automated robots of the frame being read. */
+    private final Robots robots = new Robots();
+
+    /** The controlled robots of the frame being read. */
+    private final Robots controlledRobots = new Robots();
+
+    /**
+     * Opens a JSON log for reading.
+     *
+     * @param log The JSON log.
+     * @throws IOException If the log cannot be opened or does not start with an array.
+     */
+    public JsonLogReader(File log) throws IOException {
+        this.reader = new JsonReader(new InputStreamReader(new FileInputStream(log), StandardCharsets.UTF_8));
+        try {
+            reader.beginArray();
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next frame of the log.
+     *
+     * @param frame The frame object to fill.
+     * @return True if a frame was read, false at the end of the log.
+     * @throws IOException If the log cannot be read or the frame is malformed.
+     */
+    public boolean next(LogFrame frame) throws IOException {
+        if (!reader.hasNext()) {
+            return false;
+        }
+
+        int id = -1;
+        robots.count = -1;
+        controlledRobots.count = -1;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "robots":
+                    robots.read(reader);
+                    break;
+                case "controlledRobots":
+                    controlledRobots.read(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (id < 0 || robots.count < 0 || controlledRobots.count < 0) {
+            throw new IOException("Frame without id, robots or controlledRobots");
+        }
+
+        frame.clear(id);
+        for (int i = 0; i < robots.count; i++) {
+            int slot = robots.slot[i];
+            frame.addRobot(robots.x[slot], robots.y[slot], robots.angle[slot]);
+        }
+        for (int i = 0; i < controlledRobots.count; i++) {
+            int slot = controlledRobots.slot[i];
+            frame.addControlledRobot(controlledRobots.x[slot], controlledRobots.y[slot],
+                    controlledRobots.angle[slot]);
+        }
+        return true;
+    }
+
+    /**
+     * Closes the log.
+     *
+     * @throws IOException If the log cannot be closed.
+     */
+    @Override
+    public void close() throws IOException { reader.close(); }
+
+    /**
+     * The robots of one kind of the frame being read, stored in the order they are read.
+     * The arrays are reused for all frames and only grow with the robots actually read, never with their numbers.
+     */
+    private static class Robots {
+
+        /** X coordinates of the robots. */
+        private double[] x = new double[16];
+
+        /** Y coordinates of the robots. */
+        private double[] y = new double[16];
+
+        /** Angles of the robots. */
+        private int[] angle = new int[16];
+
+        /** Numbers of the robots. */
+        private int[] number = new int[16];
+
+        /** Positions in the arrays of the robots with the numbers 0, 1, ... */
+        private int[] slot = new int[16];
+
+        /** Number of robots, -1 if the robots of the frame have not been read yet. */
+        private int count = -1;
+
+        /**
+         * Reads an object mapping robot0, robot1, ... to the robots.
+         *
+         * @param reader The reader positioned at the object.
+         * @throws IOException If the log cannot be read, or the numbers of the robots are not 0 to the number - 1.
+         */
+        private void read(JsonReader reader) throws IOException {
+            count = 0;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                int index = JsonReader.nameIndex(reader.nextName(), "robot");
+                reserve(count + 1);
+                number[count] = index;
+                x[count] = 0;
+                y[count] = 0;
+                angle[count] = 0;
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "x":
+                            x[count] = reader.nextDouble();
+                            break;
+                        case "y":
+                            y[count] = reader.nextDouble();
+                            break;
+                        case "angle":
+                            angle[count] = reader.nextInt();
+                            break;
+                        default:
+                            reader.skipValue();
+                            break;
+                    }
+                }
+                reader.endObject();
+
+                count++;
+            }
+            reader.endObject();
+
+            Arrays.fill(slot, 0, count, -1);
+            for (int i = 0; i < count; i++) {
+                if (number[i] >= count) {
+                    throw new IOException("Robot numbers are not consecutive");
+                }
+                if (slot[number[i]] >= 0) {
+                    throw new IOException("Duplicate robot" + number[i]);
+                }
+                slot[number[i]] = i;
+            }
+        }
+
+        /**
+         * Grows the arrays to hold at least the specified number of robots.
+         *
+         * @param size The number of robots.
+         */
+        private void reserve(int size) {
+            if (size > x.length) {
+                int capacity = Math.max(size, x.length * 2);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                angle = Arrays.copyOf(angle, capacity);
+                number = Arrays.copyOf(number, capacity);
+                slot = Arrays.copyOf(slot, capacity);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,615 @@
+/**
+ * Project name: Robot Simulation
+ * File name: JsonReader.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Reads a JSON document one token at a time.
+ */
+
+package ija.project.utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads a JSON document one token at a time.
+ * The reader pulls the characters through a buffer of fixed size and keeps only the nesting of the current token,
+ * so a document of any size is read in a constant amount of memory. Values the caller is not interested in are
+ * skipped without being built. Numbers are read as double, int or long, whole numbers are read without creating
+ * any objects.
+ */
+public class JsonReader implements Closeable {
+
+    /**
+     * Kind of the next token.
+     */
+    public enum Token {
+        /** The start of an object. */
+        BEGIN_OBJECT,
+        /** The end of an object. */
+        END_OBJECT,
+        /** The start of an array. */
+        BEGIN_ARRAY,
+        /** The end of an array. */
+        END_ARRAY,
+        /** The name of a member of an object. */
+        NAME,
+        /** A string value. */
+        STRING,
+        /** A number value. */
+        NUMBER,
+        /** A true or false value. */
+        BOOLEAN,
+        /** A null value. */
+        NULL,
+        /** The end of the document. */
+        END_DOCUMENT
+    }
+
+    /** Number of characters read from the source at once. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Scope of the document outside of any value. */
+    private static final int DOCUMENT = 0;
+
+    /** Scope of an array, a comma precedes all values but the first one. */
+    private static final int ARRAY = 1;
+
+    /** Scope of an object expecting a name, a comma precedes all names but the first one. */
+    private static final int OBJECT = 2;
+
+    /** Scope of an object after a name, a colon precedes the value. */
+    private static final int MEMBER = 3;
+
+    /** The source of the characters. */
+    private final Reader source;
+
+    /** The characters read from the source. */
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    /** Index of the next character in the buffer. */
+    private int position = 0;
+
+    /** Number of valid characters in the buffer. */
+    private int limit = 0;
+
+    /** Number of characters consumed before the buffer. */
+    private long consumed = 0;
+
+    /** Scopes of the values the current token is nested in, the innermost last. */
+    private int[] scopes = new int[32];
+
+    /** Flags of the scopes, true if the scope already holds a value or a member. */
+    private boolean[] filled = new boolean[32];
+
+    /** Number of scopes. */
+    private int depth = 1;
+
+    /** The next token, null if it has not been read yet. */
+    private Token peeked = null;
+
+    /** Characters of the string or number being read. */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Creates a reader of a JSON document.
+     *
+     * @param source The source of the document, buffering it is not needed.
+     */
+    public JsonReader(Reader source) {
+        this.source = source;
+        this.scopes[0] = DOCUMENT;
+    }
+
+    /**
+     * Returns the kind of the next token without consuming it.
+     *
+     * @return The kind of the next token.
+     * @throws IOException If the document cannot be read or is not valid JSON.
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int scope = scopes[depth - 1];
+        int c = nextNonSpace();
+
+        if (scope == ARRAY) {
+            if (c == ']') {
+                return peeked = Token.END_ARRAY;
+            }
+            if (filled[depth - 1]) {
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                c = nextNonSpace();
+            }
+        } else if (scope == OBJECT) {
+            if (c == '}') {
+                return peeked = Token.END_OBJECT;
+            }
+            if (filled[depth - 1]) {
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or '}'");
+                }
+                c = nextNonSpace();
+            }
+            if (c != '"') {
+                throw syntaxError("Expected a name");
+            }
+            return peeked = Token.NAME;
+        } else if (scope == MEMBER) {
+            if (c != ':') {
+                throw syntaxError("Expected ':'");
+            }
+            c = nextNonSpace();
+        } else if (filled[0]) {
+            if (c != -1) {
+                throw syntaxError("Expected the end of the document");
+            }
+            return peeked = Token.END_DOCUMENT;
+        }
+
+        switch (c) {
+            case -1:
+                throw new EOFException("Unexpected end of the document");
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+            case 'f':
+                position--;
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                position--;
+                return peeked = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    position--;
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Checks if the current array or object has another element.
+     *
+     * @return True if another value or member follows.
+     * @throws IOException If the document cannot be read or is not valid JSON.
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Consumes the start of an object.
+     *
+     * @throws IOException If the next token is not the start of an object.
+     */
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(OBJECT);
+    }
+
+    /**
+     * Consumes the end of an object.
+     *
+     * @throws IOException If the next token is not the end of an object.
+     */
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        pop();
+    }
+
+    /**
+     * Consumes the start of an array.
+     *
+     * @throws IOException If the next token is not the start of an array.
+     */
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(ARRAY);
+    }
+
+    /**
+     * Consumes the end of an array.
+     *
+     * @throws IOException If the next token is not the end of an array.
+     */
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        pop();
+    }
+
+    /**
+     * Consumes the name of a member of an object.
+     *
+     * @return The name.
+     * @throws IOException If the next token is not a name.
+     */
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        readString();
+        scopes[depth - 1] = MEMBER;
+        return text.toString();
+    }
+
+    /**
+     * Consumes a string value.
+     *
+     * @return The string.
+     * @throws IOException If the next token is not a string.
+     */
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        readString();
+        valueRead();
+        return text.toString();
+    }
+
+    /**
+     * Consumes a true or false value.
+     *
+     * @return The value.
+     * @throws IOException If the next token is not a boolean.
+     */
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        boolean value = readLiteral() == 't';
+        valueRead();
+        return value;
+    }
+
+    /**
+     * Consumes a number value.
+     *
+     * @return The number.
+     * @throws IOException If the next token is not a number.
+     */
+    public double nextDouble() throws IOException {
+        expect(Token.NUMBER);
+        long whole = readNumber();
+        valueRead();
+        return text.length() == 0 ? whole : Double.parseDouble(text.toString());
+    }
+
+    /**
+     * Consumes a number value, a number with a fraction is truncated.
+     *
+     * @return The number.
+     * @throws IOException If the next token is not a number.
+     */
+    public long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        long whole = readNumber();
+        valueRead();
+        return text.length() == 0 ? whole : (long) Double.parseDouble(text.toString());
+    }
+
+    /**
+     * Consumes a number value, a number with a fraction is truncated.
+     *
+     * @return The number.
+     * @throws IOException If the next token is not a number or does not fit into an int.
+     */
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("Number " + value + " out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Consumes the next value with all values nested in it, or the name and the value of a member.
+     *
+     * @throws IOException If the document cannot be read or is not valid JSON.
+     */
+    public void skipValue() throws IOException {
+        int start = depth;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                    nextString();
+                    break;
+                case NUMBER:
+                    nextDouble();
+                    break;
+                case BOOLEAN:
+                    nextBoolean();
+                    break;
+                case NULL:
+                    expect(Token.NULL);
+                    readLiteral();
+                    valueRead();
+                    break;
+                default:
+                    throw syntaxError("Unexpected end of the document");
+            }
+        } while (depth > start || scopes[depth - 1] == MEMBER);
+    }
+
+    /**
+     * Returns the number after a prefix of a name, e.g. 12 for robot12 and the prefix robot.
+     *
+     * @param name The name.
+     * @param prefix The expected prefix.
+     * @return The number after the prefix.
+     * @throws IOException If the name does not consist of the prefix and a number.
+     */
+    public static int nameIndex(String name, String prefix) throws IOException {
+        if (name.length() > prefix.length() && name.startsWith(prefix) && name.length() - prefix.length() < 10) {
+            int index = 0;
+            for (int i = prefix.length(); i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c < '0' || c > '9') {
+                    index = -1;
+                    break;
+                }
+                index = index * 10 + c - '0';
+            }
+            if (index >= 0) {
+                return index;
+            }
+        }
+        throw new IOException("Unexpected name " + name + ", expected " + prefix + "<number>");
+    }
+
+    /**
+     * Closes the source of the document.
+     *
+     * @throws IOException If the source cannot be closed.
+     */
+    @Override
+    public void close() throws IOException { source.close(); }
+
+    /**
+     * Consumes the peeked token after checking its kind.
+     *
+     * @param token The expected kind of the token.
+     * @throws IOException If the next token is of another kind.
+     */
+    private void expect(Token token) throws IOException {
+        if (peek() != token) {
+            throw syntaxError("Expected " + token + " but was " + peeked);
+        }
+        peeked = null;
+    }
+
+    /**
+     * Marks the current scope as holding a value after a value was read.
+     */
+    private void valueRead() {
+        if (scopes[depth - 1] == MEMBER) {
+            scopes[depth - 1] = OBJECT;
+        }
+        filled[depth - 1] = true;
+    }
+
+    /**
+     * Enters an array or an object.
+     *
+     * @param scope The scope of the array or the object.
+     */
+    private void push(int scope) {
+        valueRead();
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+            filled = Arrays.copyOf(filled, depth * 2);
+        }
+        scopes[depth] = scope;
+        filled[depth] = false;
+        depth++;
+    }
+
+    /**
+     * Leaves an array or an object.
+     */
+    private void pop() { depth--; }
+
+    /**
+     * Reads a string after its opening quote into the text, resolving the escapes.
+     *
+     * @throws IOException If the string is not terminated or holds an invalid escape.
+     */
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                position++;
+            }
+            text.append(buffer, start, position - start);
+
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == -1) {
+                throw new EOFException("Unterminated string");
+            }
+            if (c == '\\') {
+                text.append(readEscape());
+            } else {
+                // the buffer was refilled in the middle of the string
+                text.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Reads an escape sequence after its backslash.
+     *
+     * @return The escaped character.
+     * @throws IOException If the escape is invalid.
+     */
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'n':
+                return '\n';
+            case 't':
+                return '\t';
+            case 'r':
+                return '\r';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = value * 16 + digit;
+                }
+                return (char) value;
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw syntaxError("Invalid escape");
+        }
+    }
+
+    /**
+     * Reads a number. A whole number that fits into a long is returned and leaves the text empty,
+     * any other number is left in the text.
+     *
+     * @return The whole number, meaningless if the text is not empty.
+     * @throws IOException If the number is malformed.
+     */
+    private long readNumber() throws IOException {
+        text.setLength(0);
+        boolean negative = false;
+        boolean whole = true;
+        long value = 0;
+        int digits = 0;
+
+        int c = read();
+        if (c == '-') {
+            negative = true;
+            text.append('-');
+            c = read();
+        }
+        while (c != -1) {
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (whole && value > (Long.MAX_VALUE - 9) / 10) {
+                    whole = false;
+                }
+                value = value * 10 + c - '0';
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                whole = false;
+            } else {
+                position--;
+                break;
+            }
+            text.append((char) c);
+            c = read();
+        }
+
+        if (digits == 0) {
+            throw syntaxError("Malformed number");
+        }
+        if (whole) {
+            text.setLength(0);
+            return negative ? -value : value;
+        }
+        return 0;
+    }
+
+    /**
+     * Reads a true, false or null literal.
+     *
+     * @return The first character of the literal.
+     * @throws IOException If the literal is misspelled.
+     */
+    private int readLiteral() throws IOException {
+        int first = read();
+        String literal = first == 't' ? "true" : first == 'f' ? "false" : "null";
+        for (int i = 1; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Reads the next character which is not white space.
+     *
+     * @return The character, -1 at the end of the document.
+     * @throws IOException If the source cannot be read.
+     */
+    private int nextNonSpace() throws IOException {
+        int c = read();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            c = read();
+        }
+        return c;
+    }
+
+    /**
+     * Reads the next character, refilling the buffer if needed.
+     *
+     * @return The character, -1 at the end of the document.
+     * @throws IOException If the source cannot be read.
+     */
+    private int read() throws IOException {
+        if (position == limit) {
+            consumed += limit;
+            position = 0;
+            limit = 0;
+            int count = source.read(buffer, 0, buffer.length);
+            if (count <= 0) {
+                return -1;
+            }
+            limit = count;
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Creates an error of a malformed document with the position of the error.
+     *
+     * @param message The description of the error.
+     * @return The error.
+     */
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at character " + (consumed + position));
+    }
+
+}
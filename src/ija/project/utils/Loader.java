@@ -2,7 +2,7 @@
  * Project name: Robot Simulation
  * File name: Loader.java
  * Date: 05.05.2024
- * Last update: 05.05.2024
+ * Last update: 18.10.2026
  * Author: Neonila Mashlai(xmashl00)
  * Description: Represents a loader for loading the map from file and saving the map to file.
  */
@@ -10,7 +10,9 @@
 package ija.project.utils;
 
 import java.io.*;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 
 import ija.project.game.*;
 import org.json.*;
@@ -18,11 +20,13 @@ import org.json.*;
 /**
  * Loader class.
  * Represents a loader for loading the map from file and saving the map to file.
+ * A map is saved as JSON together with a binary conversion, see MapFile, which is what is loaded. A JSON map
+ * without an up to date binary conversion, e.g. an older or a hand edited map, is converted when first loaded.
  */
 public class Loader {
 
     /** The room to load the map to. */
-    private final Room room;
+    private Room room;
 
     /**
      * Constructs a new Loader.
@@ -31,6 +35,9 @@ public class Loader {
 
     /**
      * Loads the map from the file.
+     * The dimensions in cells and the seed of the room are taken from the map, maps without dimensions
+     * have the default size. The binary conversion of the map is read if it is not older than the JSON map,
+     * otherwise the JSON map is loaded and converted.
      *
      * @param map The name of the map to load as a string.
      */
@@ -40,32 +47,122 @@ public class Loader {
             return;
         }
 
+        File mapFile = mapFile(map, ".json");
+        File binaryFile = mapFile(map, ".bin");
+
+        if (binaryFile.isFile() && (!mapFile.isFile() || binaryFile.lastModified() >= mapFile.lastModified())) {
+            try {
+                room = MapFile.read(binaryFile);
+                return;
+            } catch (IOException e) {
+                if (!mapFile.isFile()) {
+                    throw new RuntimeException("Error reading map file");
+                }
+                // a damaged conversion is replaced by converting the JSON map again
+            }
+        }
+
+        boolean seeded = loadJson(mapFile);
+
         try {
-            File mapFile = new File(System.getProperty("user.dir") + "/data/maps/" + map + ".json");
+            MapFile.write(binaryFile, room, seeded);
+        } catch (IOException e) {
+            // the conversion is only a cache, the JSON map is loaded again next time
+        }
+    }
 
-            JSONObject obj = new JSONObject(new String(Files.readAllBytes(mapFile.toPath())));
+    /**
+     * Converts a JSON map to the binary format.
+     *
+     * @param mapFile The JSON map.
+     * @param binaryFile The binary map to write, an existing file is replaced.
+     * @throws IOException If the binary map cannot be written.
+     */
+    public static void convert(File mapFile, File binaryFile) throws IOException {
+        Loader loader = new Loader();
+        boolean seeded = loader.loadJson(mapFile);
+        MapFile.write(binaryFile, loader.room, seeded);
+    }
+
+    /**
+     * Loads a JSON map, the map is parsed while it is read, without building a tree of JSON objects.
+     *
+     * @param mapFile The JSON map.
+     * @return True if the map has a seed.
+     */
+    private boolean loadJson(File mapFile) {
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(mapFile),
+                StandardCharsets.UTF_8))) {
+
+            int width = Room.DEFAULT_COLUMNS;
+            int height = Room.DEFAULT_ROWS;
+            Long seed = null;
+            int[] obstacles = new int[0];
+            int[] walls = new int[0];
+            int[] robots = new int[0];
+            int[] controlledRobots = new int[0];
+
+            // the members may come in any order, the room is built once the whole map is read
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "width":
+                        width = reader.nextInt();
+                        break;
+                    case "height":
+                        height = reader.nextInt();
+                        break;
+                    case "seed":
+                        seed = reader.nextLong();
+                        break;
+                    case "obstacles":
+                        obstacles = readPositions(reader, "obstacle");
+                        break;
+                    case "walls":
+                        walls = readObjects(reader, "wall", "x", "y", "width", "height");
+                        break;
+                    case "robots":
+                        robots = readPositions(reader, "robot");
+                        break;
+                    case "controlledRobots":
+                        controlledRobots = readPositions(reader, "robot");
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
 
-            JSONObject obstacles = obj.getJSONObject("obstacles");
+            room = new Room(width, height, 1);
 
-            for (int i = 0; i < obstacles.length(); i++) {
-                JSONObject obstacle = obstacles.getJSONObject("obstacle" + i);
-                room.addObstacle(new Obstacle(new Position(obstacle.getInt("x"), obstacle.getInt("y"))));
+            if (seed != null) {
+                room.setSeed(seed);
             }
 
-            JSONObject robots = obj.getJSONObject("robots");
+            for (int i = 0; i < obstacles.length; i += 2) {
+                room.addObstacle(new Obstacle(new Position(obstacles[i], obstacles[i + 1])));
+            }
 
-            for (int i = 0; i < robots.length(); i++) {
-                JSONObject robot = robots.getJSONObject("robot" + i);
-                room.addRobot(new AutomatedRobot(new Position(robot.getInt("x"), robot.getInt("y")), room));
+            for (int i = 0; i < walls.length; i += 4) {
+                for (int y = walls[i + 1]; y < walls[i + 1] + walls[i + 3]; y++) {
+                    for (int x = walls[i]; x < walls[i] + walls[i + 2]; x++) {
+                        room.addObstacle(new Obstacle(new Position(x, y)));
+                    }
+                }
             }
 
-            JSONObject controlledRobots = obj.getJSONObject("controlledRobots");
+            for (int i = 0; i < robots.length; i += 2) {
+                room.addRobot(new AutomatedRobot(new Position(robots[i], robots[i + 1]), room));
+            }
 
-            for (int i = 0; i < controlledRobots.length(); i++) {
-                JSONObject robot = controlledRobots.getJSONObject("robot" + i);
-                room.addControlledRobot(new ControlledRobot(new Position(robot.getInt("x"), robot.getInt("y")), room));
+            for (int i = 0; i < controlledRobots.length; i += 2) {
+                room.addControlledRobot(new ControlledRobot(new Position(controlledRobots[i], controlledRobots[i + 1]), room));
             }
 
+            return seed != null;
+
         } catch (FileNotFoundException e) {
             throw new RuntimeException("Map file not found");
         } catch (IOException e) {
@@ -99,30 +196,39 @@ public class Loader {
 
         String[] maps = new String[listOfFiles.length];
 
-        for (int i = 0; i < listOfFiles.length; i++) {
-
-            try {
-
-                if (!listOfFiles[i].getName().endsWith(".json")) {
-                    throw new Exception("Invalid map file");
-                }
+        int count = 0;
 
-            } catch (Exception e) {
+        for (int i = 0; i < listOfFiles.length; i++) {
 
-                System.out.println(e.getMessage());
-                System.exit(1);
+            String name = listOfFiles[i].getName();
+            String map = MapCatalog.mapName(name);
 
+            // files which are not maps are skipped, the binary conversion of a JSON map is not listed again
+            if (map == null || !listOfFiles[i].isFile() ||
+                    name.endsWith(".bin") && new File(folder, map + ".json").isFile()) {
+                continue;
             }
 
-            maps[i] = listOfFiles[i].getName().replace(".json", "");
+            maps[count++] = map;
 
         }
 
-        return maps;
+        return Arrays.copyOf(maps, count);
     }
 
     /**
-     * Saves the map to the file with the specified name and json format.
+     * Checks if a map exists.
+     *
+     * @param map The name of the map as a string.
+     * @return True if the map can be loaded, false otherwise.
+     */
+    public static boolean exists(String map) {
+        return mapFile(map, ".json").isFile() || mapFile(map, ".bin").isFile();
+    }
+
+    /**
+     * Saves the map to the file with the specified name and json format, and its binary conversion.
+     * The obstacles are saved both one by one and as walls, a map read by this build gets the same cells from both.
      *
      * @param map The name of the map to save as a string.
      * @param room The room to save as an instance of the Room class.
@@ -130,35 +236,56 @@ public class Loader {
     public void saveMap(String map, Room room) {
 
         JSONObject main = new JSONObject();
+        main.put("width", room.getColumns());
+        main.put("height", room.getRows());
+        main.put("seed", room.getSeed());
 
         JSONObject obstacles = new JSONObject();
         main.put("obstacles", obstacles);
 
+        JSONObject walls = new JSONObject();
+        main.put("walls", walls);
+
         JSONObject robots = new JSONObject();
         main.put("robots", robots);
 
         JSONObject controlledRobots = new JSONObject();
         main.put("controlledRobots", controlledRobots);
 
-        for (Obstacle obstacle : room.getObstacles()) {
+        // the single obstacles are still saved for older builds, which read only them
+        List<Obstacle> obstacleList = room.getObstacles();
+        for (int i = 0; i < obstacleList.size(); i++) {
             JSONObject obstacleJson = new JSONObject();
-            obstacleJson.put("x", obstacle.getPosition().getX());
-            obstacleJson.put("y", obstacle.getPosition().getY());
-            obstacles.put("obstacle" + room.getObstacles().indexOf(obstacle), new JSONObject(obstacleJson.toString()));
+            obstacleJson.put("x", (int) obstacleList.get(i).getPosition().getX());
+            obstacleJson.put("y", (int) obstacleList.get(i).getPosition().getY());
+            obstacles.put("obstacle" + i, obstacleJson);
         }
 
+        // the obstacles are also saved as the walls they are merged into
+        ObstacleField field = room.getObstacleField();
+        for (int i = 0; i < field.getWallCount(); i++) {
+            JSONObject wallJson = new JSONObject();
+            wallJson.put("x", field.getWallColumn(i));
+            wallJson.put("y", field.getWallRow(i));
+            wallJson.put("width", field.getWallWidth(i));
+            wallJson.put("height", field.getWallHeight(i));
+            walls.put("wall" + i, wallJson);
+        }
+
+        int index = 0;
         for (AutomatedRobot robot : room.getRobots()) {
             JSONObject robotJson = new JSONObject();
             robotJson.put("x", robot.getPosition().getX());
             robotJson.put("y", robot.getPosition().getY());
-            robots.put("robot" + room.getRobots().indexOf(robot), new JSONObject(robotJson.toString()));
+            robots.put("robot" + index++, robotJson);
         }
 
+        index = 0;
         for (ControlledRobot robot : room.getControlledRobots()) {
             JSONObject robotJson = new JSONObject();
             robotJson.put("x", robot.getPosition().getX());
             robotJson.put("y", robot.getPosition().getY());
-            controlledRobots.put("robot" + room.getControlledRobots().indexOf(robot), new JSONObject(robotJson.toString()));
+            controlledRobots.put("robot" + index++, robotJson);
         }
 
         File filename = new File(System.getProperty("user.dir") + File.separator + "data" + File.separator +
@@ -183,6 +310,12 @@ public class Loader {
             throw new RuntimeException(e);
 
         }
+
+        try {
+            MapFile.write(mapFile(map, ".bin"), room, true);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     /**
@@ -191,12 +324,103 @@ public class Loader {
      * @param map The name of the map to delete as a string.
      */
     public static void deleteMap(String map) {
-        File mapFile = new File(System.getProperty("user.dir") + "/data/maps/" + map + ".json");
-        if (!mapFile.delete()) {
+        thumbnailFile(map).delete();
+        boolean deleted = mapFile(map, ".bin").delete();
+        if (!mapFile(map, ".json").delete() && !deleted) {
             throw new RuntimeException("Error deleting map file");
         }
     }
 
+    /**
+     * Returns the cached picture of the map with the specified name, see MapThumbnail.
+     *
+     * @param map The name of the map as a string.
+     * @return The file in data/maps.
+     */
+    public static File thumbnailFile(String map) {
+        return mapFile(map, MapThumbnail.EXTENSION);
+    }
+
+    /**
+     * Returns a file of the map with the specified name.
+     *
+     * @param map The name of the map as a string.
+     * @param extension The extension of the file, .json for the map or .bin for its binary conversion.
+     * @return The file in data/maps.
+     */
+    private static File mapFile(String map, String extension) {
+        return new File(System.getProperty("user.dir") + "/data/maps/" + map + extension);
+    }
+
+    /**
+     * Reads an object mapping the prefix followed by 0, 1, ... to objects with the x and y of a position.
+     *
+     * @param reader The reader positioned at the object.
+     * @param prefix The prefix of the names, e.g. obstacle.
+     * @return The x and y of every position in the order of their numbers.
+     * @throws IOException If the map cannot be read, or the numbers are not 0 to the number of positions - 1.
+     */
+    private static int[] readPositions(JsonReader reader, String prefix) throws IOException {
+        return readObjects(reader, prefix, "x", "y");
+    }
+
+    /**
+     * Reads an object mapping the prefix followed by 0, 1, ... to objects with the specified int members,
+     * members missing in an object are 0 and other members are skipped. The objects are kept in the order they are
+     * read and placed by their numbers at the end, so a large number in a name cannot make the arrays grow.
+     *
+     * @param reader The reader positioned at the object.
+     * @param prefix The prefix of the names, e.g. wall.
+     * @param members The names of the members of every object, e.g. x and y.
+     * @return The members of every object in the order of their numbers.
+     * @throws IOException If the map cannot be read, or the numbers are not 0 to the number of objects - 1.
+     */
+    private static int[] readObjects(JsonReader reader, String prefix, String... members) throws IOException {
+        int stride = members.length;
+        int[] values = new int[16 * stride];
+        int[] numbers = new int[16];
+        int count = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int index = JsonReader.nameIndex(reader.nextName(), prefix);
+            if (count == numbers.length) {
+                numbers = Arrays.copyOf(numbers, count * 2);
+                values = Arrays.copyOf(values, stride * count * 2);
+            }
+            numbers[count] = index;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                int member = 0;
+                while (member < stride && !members[member].equals(name)) {
+                    member++;
+                }
+                if (member < stride) {
+                    values[stride * count + member] = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            count++;
+        }
+        reader.endObject();
+
+        int[] ordered = new int[stride * count];
+        boolean[] seen = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            if (numbers[i] >= count || seen[numbers[i]]) {
+                throw new IOException("Numbers of " + prefix + " are not consecutive");
+            }
+            seen[numbers[i]] = true;
+            System.arraycopy(values, stride * i, ordered, stride * numbers[i], stride);
+        }
+        return ordered;
+    }
+
     /**
      * Returns the room.
      *
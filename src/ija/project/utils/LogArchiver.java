@@ -0,0 +1,295 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogArchiver.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Compresses closed log segments and deletes old logs on a thread of its own.
+ */
+
+package ija.project.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses closed log segments and deletes old logs on a thread of its own.
+ * After every compressed segment the retention is applied to the binary logs of the log directory: logs not
+ * written for longer than the maximum age are deleted, then the oldest logs are deleted while all logs together
+ * take more than the maximum size. The log being written is never deleted, logs in other formats are not touched.
+ * <p>
+ * A log open in a ReplayReader is neither compressed nor deleted, the readers register their logs with acquire.
+ * A segment handed over while its log is read is compressed by a later task of the archiver once the log is
+ * released, or stays plain if it is still read when the archiver is closed, which a replay reads just as well.
+ * Compressing and deleting hold the registry, so a reader never opens a log in the middle of either.
+ */
+public class LogArchiver {
+
+    /** The directory holding the logs. */
+    private final File directory;
+
+    /** The log being written, it is never deleted. */
+    private final File active;
+
+    /** Age in milliseconds after which a log is deleted. */
+    private final long maxAge;
+
+    /** Number of bytes all binary logs may take together. */
+    private final long maxBytes;
+
+    /** The thread compressing segments and applying the retention. */
+    private final ExecutorService executor;
+
+    /** The first error of the archiver thread, null if none. */
+    private volatile IOException failure = null;
+
+    /** Number of open readers of every log by the path of the log without its extension, see acquire. */
+    private static final Map<String, Integer> readers = new HashMap<>();
+
+    /** Segments handed over while their logs were read, used on the archiver thread only. */
+    private final List<File> deferred = new ArrayList<>();
+
+    /**
+     * Starts the archiver thread.
+     *
+     * @param directory The directory holding the logs.
+     * @param active The log being written.
+     * @param maxAge The age in milliseconds after which a log is deleted.
+     * @param maxBytes The number of bytes all binary logs may take together.
+     */
+    public LogArchiver(File directory, File active, long maxAge, long maxBytes) {
+        this.directory = directory;
+        this.active = active;
+        this.maxAge = maxAge;
+        this.maxBytes = maxBytes;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Compresses a closed segment in the background and applies the retention afterwards.
+     *
+     * @param segment The plain file of the segment.
+     */
+    public void compress(File segment) {
+        executor.execute(() -> {
+            try {
+                deferred.add(segment);
+                compressDeferred();
+                applyRetention();
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+    }
+
+    /**
+     * Applies the retention in the background.
+     */
+    public void retain() {
+        executor.execute(() -> {
+            try {
+                compressDeferred();
+                applyRetention();
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+    }
+
+    /**
+     * Drops the deferred segments of the log being written, they stay plain. Called before the log is truncated,
+     * as the writer may write a dropped segment again.
+     */
+    public void dropDeferred() {
+        executor.execute(() -> deferred.removeIf(segment -> key(segment).equals(key(active))));
+        drain();
+    }
+
+    /**
+     * Waits until all segments handed over so far are compressed, or deferred while their logs are read.
+     */
+    public void drain() {
+        try {
+            executor.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while archiving log file", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error archiving log file", e.getCause());
+        }
+        checkFailure();
+    }
+
+    /**
+     * Finishes the queued work, compresses the deferred segments whose logs are no longer read and stops
+     * the archiver thread.
+     */
+    public void close() {
+        executor.execute(() -> {
+            try {
+                compressDeferred();
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while archiving log file", e);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Registers a reader of a log, the log is neither compressed nor deleted until the reader releases it.
+     * Waits while a segment is being compressed or a log is being deleted.
+     *
+     * @param log The binary log or one of its segments.
+     */
+    static void acquire(File log) {
+        synchronized (readers) {
+            readers.merge(key(log), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Unregisters a reader of a log registered by acquire.
+     *
+     * @param log The binary log or one of its segments.
+     */
+    static void release(File log) {
+        synchronized (readers) {
+            readers.computeIfPresent(key(log), (name, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Returns the key of a log in the registry of the readers.
+     *
+     * @param file A file of the log.
+     * @return The path of the log without its extension, the path of the file if it is not a part of a binary log.
+     */
+    private static String key(File file) {
+        File absolute = file.getAbsoluteFile();
+        String name = LogSegment.logName(absolute.getName());
+        return name == null ? absolute.getPath() : new File(absolute.getParentFile(), name).getPath();
+    }
+
+    /**
+     * Compresses the deferred segments whose logs are not read, segments removed in the meantime are dropped.
+     *
+     * @throws IOException If a segment cannot be compressed.
+     */
+    private void compressDeferred() throws IOException {
+        synchronized (readers) {
+            Iterator<File> iterator = deferred.iterator();
+            while (iterator.hasNext()) {
+                File segment = iterator.next();
+                if (readers.containsKey(key(segment))) {
+                    continue;
+                }
+                iterator.remove();
+                if (segment.isFile()) {
+                    LogSegment.compress(segment);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the logs which are too old, then the oldest logs while the logs take too much space.
+     * A log being read is kept, its files still count into the size of the logs.
+     *
+     * @throws IOException If a log cannot be deleted.
+     */
+    private void applyRetention() throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Map<String, StoredLog> logs = new HashMap<>();
+        long total = 0;
+        for (File file : files) {
+            String name = LogSegment.logName(file.getName());
+            if (name == null || !file.isFile()) {
+                continue;
+            }
+            StoredLog log = logs.computeIfAbsent(name, key -> new StoredLog());
+            log.files.add(file);
+            log.bytes += file.length();
+            log.modified = Math.max(log.modified, file.lastModified());
+            total += file.length();
+        }
+
+        logs.remove(LogSegment.logName(active.getName()));
+        List<StoredLog> oldestFirst = new ArrayList<>(logs.values());
+        oldestFirst.sort((first, second) -> Long.compare(first.modified, second.modified));
+
+        long now = System.currentTimeMillis();
+        synchronized (readers) {
+            for (StoredLog log : oldestFirst) {
+                if (now - log.modified <= maxAge && total <= maxBytes || readers.containsKey(key(log.files.get(0)))) {
+                    continue;
+                }
+                for (File file : log.files) {
+                    Files.deleteIfExists(file.toPath());
+                }
+                total -= log.bytes;
+            }
+        }
+    }
+
+    /**
+     * Keeps the first error of the archiver thread.
+     *
+     * @param e The error.
+     */
+    private void fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Rethrows the error of the archiver thread on the calling thread.
+     */
+    private void checkFailure() {
+        if (failure != null) {
+            throw new RuntimeException("Error archiving log file", failure);
+        }
+    }
+
+    /**
+     * The files of one log found in the log directory.
+     */
+    private static class StoredLog {
+
+        /** The segments, compressed segments and indexes of the log. */
+        private final List<File> files = new ArrayList<>();
+
+        /** Number of bytes of all files of the log. */
+        private long bytes = 0;
+
+        /** Time of the last modification of any file of the log in milliseconds. */
+        private long modified = 0;
+
+    }
+
+}
@@ -0,0 +1,426 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogCatalog.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Lists the logs of past runs with their metadata, cached in the log directory.
+ */
+
+package ija.project.utils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lists the logs of past runs with their metadata, cached in the log directory.
+ * The files of the log directory are grouped into logs by their names, see LogSegment, so the segments,
+ * compressed segments and indexes of a log are one entry, and a JSON log converted to the binary format is one entry
+ * with its conversion. The metadata of a log is read once and cached in the file CACHE_NAME together with the sizes
+ * and modification times of the files of the log. A refresh only lists the directory and reads the logs which are new
+ * or changed since they were cached, so listing thousands of logs opens none of them.
+ */
+public class LogCatalog {
+
+    /** Name of the file caching the metadata in the log directory. */
+    public static final String CACHE_NAME = "logs.catalog";
+
+    /** Magic number at the start of the cache, the characters RCAT. */
+    private static final int CACHE_MAGIC = 0x52434154;
+
+    /** Version of the format of the cache. */
+    private static final short CACHE_VERSION = 1;
+
+    /** Name of a log: the name of its map followed by the date and time it started. */
+    private static final Pattern LOG_NAME = Pattern.compile("(.+)_(\\d{4}-\\d{2}-\\d{2}_\\d{2}-\\d{2}-\\d{2})");
+
+    /** The directory holding the logs. */
+    private final File directory;
+
+    /** The cached logs by their names. */
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /** Whether the cache file has been read. */
+    private boolean loaded = false;
+
+    /**
+     * Creates a catalog of the logs of a directory, nothing is read until the first refresh.
+     *
+     * @param directory The directory holding the logs.
+     */
+    public LogCatalog(File directory) { this.directory = directory; }
+
+    /**
+     * Creates a catalog of the logs in data/logs.
+     */
+    public LogCatalog() {
+        this(new File(System.getProperty("user.dir") + File.separator + "data" + File.separator + "logs"));
+    }
+
+    /**
+     * Brings the catalog up to date with the log directory and returns the logs, the newest first.
+     * Logs new or changed since the last refresh are read, the cache is written if anything changed.
+     * Logs which cannot be read are returned as well, see Entry.isReadable.
+     * A refresh may run on any thread, e.g. in the background while the cached logs are shown.
+     *
+     * @return The logs as a list of instances of the Entry class.
+     */
+    public synchronized List<Entry> refresh() {
+        if (!loaded) {
+            loadCache();
+            loaded = true;
+        }
+
+        Map<String, Signature> found = new HashMap<>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = logName(file.getName());
+                if (name != null && !file.getName().endsWith(".idx")) {
+                    found.computeIfAbsent(name, key -> new Signature()).add(file);
+                }
+            }
+        }
+
+        boolean changed = entries.keySet().retainAll(found.keySet());
+        for (Map.Entry<String, Signature> log : found.entrySet()) {
+            Entry entry = entries.get(log.getKey());
+            if (entry == null || entry.bytes != log.getValue().bytes || entry.modified != log.getValue().modified) {
+                entries.put(log.getKey(), scan(log.getKey(), log.getValue()));
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            saveCache();
+        }
+
+        return sorted();
+    }
+
+    /**
+     * Returns the logs as they were last cached, the newest first, without looking at the log directory.
+     * Only the cache file is read, so the logs can be shown at once while the catalog is refreshed.
+     *
+     * @return The logs as a list of instances of the Entry class.
+     */
+    public synchronized List<Entry> cached() {
+        if (!loaded) {
+            loadCache();
+            loaded = true;
+        }
+        return sorted();
+    }
+
+    /**
+     * Returns the binary log of an entry for replaying, a JSON log is converted to the binary format first.
+     * The conversion is kept next to the JSON log and belongs to the same entry. It streams the whole JSON log,
+     * so it is not called on the JavaFX thread.
+     *
+     * @param entry The log as an instance of the Entry class.
+     * @return The binary log, which is its first segment.
+     */
+    public File binaryLog(Entry entry) {
+        File binary = new File(directory, entry.name + ".bin");
+        if (!entry.binary && !LogSegment.exists(binary)) {
+            new LogConverter().jsonToBinary(new File(directory, entry.name + ".json"), binary);
+        }
+        return binary;
+    }
+
+    /**
+     * Returns the name of the log a file of the log directory belongs to.
+     *
+     * @param fileName The name of the file.
+     * @return The name of the log, null if the file is not a log.
+     */
+    private static String logName(String fileName) {
+        if (fileName.endsWith(".json")) {
+            return fileName.substring(0, fileName.length() - ".json".length());
+        }
+        return LogSegment.logName(fileName);
+    }
+
+    /**
+     * Reads the metadata of a log. A binary log is read through its index, a JSON log is streamed once.
+     * A log which cannot be read is kept with a negative number of frames, so it is not read again until it changes.
+     *
+     * @param name The name of the log.
+     * @param signature The files of the log.
+     * @return The metadata of the log.
+     */
+    private Entry scan(String name, Signature signature) {
+        Entry entry = new Entry();
+        entry.name = name;
+        entry.bytes = signature.bytes;
+        entry.modified = signature.modified;
+        entry.frames = -1;
+
+        Matcher matcher = LOG_NAME.matcher(name);
+        entry.map = matcher.matches() ? matcher.group(1) : name;
+        entry.start = signature.modified;
+        if (matcher.matches()) {
+            try {
+                entry.start = new SimpleDateFormat(Logger.DATE_FORMAT).parse(matcher.group(2)).getTime();
+            } catch (ParseException e) {
+                // the modification time stands in for the start
+            }
+        }
+
+        LogFrame frame = new LogFrame();
+        File binary = new File(directory, name + ".bin");
+        try {
+            if (LogSegment.exists(binary)) {
+                entry.binary = true;
+                try (ReplayReader reader = new ReplayReader(binary)) {
+                    entry.segments = reader.getSegmentCount();
+                    if (reader.getFrameCount() > 0) {
+                        reader.read(0, frame);
+                    }
+                    entry.frames = reader.getTickCount();
+                }
+            } else {
+                entry.segments = 1;
+                try (JsonLogReader reader = new JsonLogReader(new File(directory, name + ".json"))) {
+                    // the robots are taken from the first frame, the others are only counted
+                    LogFrame other = new LogFrame();
+                    int frames = reader.next(frame) ? 1 : 0;
+                    while (frames > 0 && reader.next(other)) {
+                        frames++;
+                    }
+                    entry.frames = frames;
+                }
+            }
+            entry.robots = frame.getRobotCount();
+            entry.controlledRobots = frame.getControlledRobotCount();
+        } catch (IOException | RuntimeException e) {
+            // the log stays in the catalog, the list shows it as unreadable
+            entry.frames = -1;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the cached logs, the newest first.
+     *
+     * @return The logs as a list of instances of the Entry class.
+     */
+    private List<Entry> sorted() {
+        List<Entry> logs = new ArrayList<>(entries.values());
+        logs.sort((first, second) -> Long.compare(second.start, first.start));
+        return logs;
+    }
+
+    /**
+     * Reads the cached metadata, a missing or outdated cache is ignored.
+     */
+    private void loadCache() {
+        File cache = new File(directory, CACHE_NAME);
+        if (!cache.isFile()) {
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(cache)))) {
+            if (input.readInt() != CACHE_MAGIC || input.readShort() != CACHE_VERSION) {
+                return;
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry();
+                entry.name = input.readUTF();
+                entry.map = input.readUTF();
+                entry.binary = input.readBoolean();
+                entry.start = input.readLong();
+                entry.modified = input.readLong();
+                entry.bytes = input.readLong();
+                entry.frames = input.readInt();
+                entry.segments = input.readInt();
+                entry.robots = input.readInt();
+                entry.controlledRobots = input.readInt();
+                entries.put(entry.name, entry);
+            }
+        } catch (IOException e) {
+            // a damaged cache is rebuilt from the logs
+            entries.clear();
+        }
+    }
+
+    /**
+     * Writes the metadata to the cache, replacing the cache at once so a reader never sees half of it.
+     */
+    private void saveCache() {
+        File cache = new File(directory, CACHE_NAME);
+        File temporary = new File(directory, CACHE_NAME + ".tmp");
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(temporary)))) {
+                output.writeInt(CACHE_MAGIC);
+                output.writeShort(CACHE_VERSION);
+                output.writeInt(entries.size());
+                for (Entry entry : entries.values()) {
+                    output.writeUTF(entry.name);
+                    output.writeUTF(entry.map);
+                    output.writeBoolean(entry.binary);
+                    output.writeLong(entry.start);
+                    output.writeLong(entry.modified);
+                    output.writeLong(entry.bytes);
+                    output.writeInt(entry.frames);
+                    output.writeInt(entry.segments);
+                    output.writeInt(entry.robots);
+                    output.writeInt(entry.controlledRobots);
+                }
+            }
+            Files.move(temporary.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the catalog still works without a cache, it is only slower to build
+        }
+    }
+
+    /**
+     * The total size and the latest modification of the files of a log, indexes excluded as they are rebuilt
+     * from the logs.
+     */
+    private static class Signature {
+
+        /** Number of bytes of the files. */
+        private long bytes = 0;
+
+        /** Time of the last modification of any of the files in milliseconds. */
+        private long modified = 0;
+
+        /**
+         * Adds a file of the log.
+         *
+         * @param file The file.
+         */
+        private void add(File file) {
+            bytes += file.length();
+            modified = Math.max(modified, file.lastModified());
+        }
+
+    }
+
+    /**
+     * The metadata of one log.
+     */
+    public static class Entry {
+
+        /** Name of the log, the name of its files without the extensions. */
+        private String name;
+
+        /** Name of the map the log was recorded on. */
+        private String map;
+
+        /** Whether the log is in the binary format, false for a JSON log not yet converted. */
+        private boolean binary;
+
+        /** Time the run started in milliseconds. */
+        private long start;
+
+        /** Time of the last modification of the log in milliseconds. */
+        private long modified;
+
+        /** Number of bytes of all files of the log. */
+        private long bytes;
+
+        /** Number of ticks, negative if the log cannot be read. */
+        private int frames;
+
+        /** Number of segments of the log. */
+        private int segments;
+
+        /** Number of automated robots in the first frame. */
+        private int robots;
+
+        /** Number of controlled robots in the first frame. */
+        private int controlledRobots;
+
+        /**
+         * Creates empty metadata, it is filled in by the catalog.
+         */
+        private Entry() {}
+
+        /**
+         * Returns the name of the log.
+         *
+         * @return The name of the log.
+         */
+        public String getName() { return name; }
+
+        /**
+         * Returns the name of the map the log was recorded on.
+         *
+         * @return The name of the map.
+         */
+        public String getMap() { return map; }
+
+        /**
+         * Checks if the log is in the binary format.
+         *
+         * @return True for a binary log, false for a JSON log.
+         */
+        public boolean isBinary() { return binary; }
+
+        /**
+         * Returns the time the run started.
+         *
+         * @return The time in milliseconds since the epoch.
+         */
+        public long getStart() { return start; }
+
+        /**
+         * Returns the number of bytes of all files of the log.
+         *
+         * @return The number of bytes.
+         */
+        public long getBytes() { return bytes; }
+
+        /**
+         * Returns whether the log could be read when it was cataloged.
+         *
+         * @return True if the log is readable, false otherwise.
+         */
+        public boolean isReadable() { return frames >= 0; }
+
+        /**
+         * Returns the number of ticks of the log, a sampled log holds fewer frames.
+         *
+         * @return The number of ticks, -1 if the log is not readable.
+         */
+        public int getFrameCount() { return frames; }
+
+        /**
+         * Returns the number of segments of the log.
+         *
+         * @return The number of segments.
+         */
+        public int getSegmentCount() { return segments; }
+
+        /**
+         * Returns the number of automated robots.
+         *
+         * @return The number of automated robots in the first frame.
+         */
+        public int getRobotCount() { return robots; }
+
+        /**
+         * Returns the number of controlled robots.
+         *
+         * @return The number of controlled robots in the first frame.
+         */
+        public int getControlledRobotCount() { return controlledRobots; }
+
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogConverter.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Converts logs between the JSON and the binary format.
+ */
+
+package ija.project.utils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.json.JSONObject;
+
+/**
+ * Converts logs between the JSON and the binary format.
+ * Positions in the binary format are quantized, so a converted log differs from the original by at most
+ * a fraction of a pixel. The JSON format is an array of frames, every frame holds its id and the objects robots and controlledRobots
+ * mapping robot0, robot1, ... to the x, y and angle of the robot. Both directions stream the frames, so logs of any
+ * size are converted in a constant amount of memory.
+ */
+public class LogConverter {
+
+    /** Size of the buffer used to write a binary log in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Constructs a new instance of the LogConverter class.
+     */
+    public LogConverter() {}
+
+    /**
+     * Converts a JSON log to a binary log, the JSON log is parsed frame by frame while it is read.
+     *
+     * @param json The JSON log to read.
+     * @param binary The binary log to write, an existing file is overwritten.
+     */
+    public void jsonToBinary(File json, File binary) {
+
+        try (JsonLogReader reader = new JsonLogReader(json);
+             FileChannel channel = FileChannel.open(binary.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            LogFrame frame = new LogFrame();
+            FrameCodec encoder = new FrameCodec(Logger.KEYFRAME_INTERVAL);
+
+            FrameCodec.writeHeader(buffer, encoder.getKeyframeInterval());
+
+            for (int index = 0; reader.next(frame); index++) {
+                ByteBuffer encoded = encoder.encode(frame, index);
+                if (encoded.remaining() > buffer.remaining()) {
+                    buffer = drain(channel, buffer, encoded.remaining());
+                }
+                buffer.put(encoded);
+            }
+
+            drain(channel, buffer, 0);
+
+            // the converted log has a single segment, the index and the other segments of an overwritten log are stale
+            Files.deleteIfExists(ReplayReader.indexFile(binary).toPath());
+            Files.deleteIfExists(LogSegment.compressedFile(binary).toPath());
+            List<File> segments = LogSegment.list(binary);
+            for (int i = 1; i < segments.size(); i++) {
+                LogSegment.delete(segments.get(i));
+            }
+
+        } catch (IOException e) {
+            throw new RuntimeException("Error converting log file", e);
+        }
+
+    }
+
+    /**
+     * Converts a binary log to a JSON log holding every tick, the ticks not stored in a sampled log are interpolated.
+     *
+     * @param binary The binary log to read, segmented or compressed logs are read as a whole.
+     * @param json The JSON log to write, an existing file is overwritten.
+     */
+    public void binaryToJson(File binary, File json) {
+
+        try (ReplayReader reader = new ReplayReader(binary);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(json),
+                     StandardCharsets.UTF_8))) {
+
+            LogFrame frame = new LogFrame();
+
+            writer.write("[");
+            for (int index = 0; index < reader.getTickCount(); index++) {
+                reader.readTick(index, frame);
+
+                JSONObject object = new JSONObject();
+                object.put("id", frame.getId());
+
+                JSONObject robots = new JSONObject();
+                for (int i = 0; i < frame.getRobotCount(); i++) {
+                    robots.put("robot" + i, robot(frame, i));
+                }
+                object.put("robots", robots);
+
+                JSONObject controlledRobots = new JSONObject();
+                for (int i = 0; i < frame.getControlledRobotCount(); i++) {
+                    controlledRobots.put("robot" + i, robot(frame, frame.getRobotCount() + i));
+                }
+                object.put("controlledRobots", controlledRobots);
+
+                if (index > 0) {
+                    writer.write(",");
+                }
+                writer.write(object.toString(4));
+            }
+            writer.write("]");
+
+        } catch (IOException e) {
+            throw new RuntimeException("Error converting log file", e);
+        }
+
+    }
+
+    /**
+     * Creates the JSON object of one robot of a frame.
+     *
+     * @param frame The frame holding the robot.
+     * @param index The index of the robot in the frame.
+     * @return The JSON object with the x, y and angle of the robot.
+     */
+    private static JSONObject robot(LogFrame frame, int index) {
+        JSONObject robot = new JSONObject();
+        robot.put("x", frame.getX(index));
+        robot.put("y", frame.getY(index));
+        robot.put("angle", frame.getAngle(index));
+        return robot;
+    }
+
+    /**
+     * Writes the content of the buffer to the channel and returns an empty buffer for the next frame.
+     *
+     * @param channel The channel to write to.
+     * @param buffer The buffer to write.
+     * @param needed The number of bytes the returned buffer has to hold.
+     * @return The emptied buffer, or a larger buffer if the frame does not fit into it.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static ByteBuffer drain(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return needed > buffer.capacity() ? ByteBuffer.allocate(needed) : buffer;
+    }
+
+}
@@ -0,0 +1,246 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogFrame.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: One frame of the binary log, the state of all robots after a tick.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.*;
+
+import java.util.Arrays;
+
+/**
+ * One frame of the binary log, the state of all robots after a tick.
+ * Automated robots are followed by the controlled robots. How frames are stored in the log is decided by
+ * FrameCodec, a frame object is reused for many frames and its arrays only grow.
+ */
+public class LogFrame {
+
+    /** The id of the frame. */
+    private int id;
+
+    /** Number of automated robots. */
+    private int robots;
+
+    /** Number of controlled robots. */
+    private int controlledRobots;
+
+    /** X coordinates of the automated robots followed by the controlled robots. */
+    private double[] x = new double[16];
+
+    /** Y coordinates of the automated robots followed by the controlled robots. */
+    private double[] y = new double[16];
+
+    /** Angles of the automated robots followed by the controlled robots. */
+    private int[] angle = new int[16];
+
+    /**
+     * Constructs a new empty frame.
+     */
+    public LogFrame() {}
+
+    /**
+     * Takes the state of all robots of the room.
+     *
+     * @param id The id of the frame.
+     * @param room The room as an instance of the Room class.
+     */
+    public void capture(int id, Room room) {
+        this.id = id;
+        this.robots = room.getRobots().size();
+        this.controlledRobots = room.getControlledRobots().size();
+        reserve(robots + controlledRobots);
+        room.copyRobots(x, y, angle, 0);
+    }
+
+    /**
+     * Replaces the robots of the room with the robots of the frame.
+     * If the room holds as many robots of both kinds as the frame, the robots are only moved, which creates
+     * no objects, otherwise new robots are created.
+     *
+     * @param room The room as an instance of the Room class.
+     */
+    public void apply(Room room) {
+        if (room.getRobots().size() == robots && room.getControlledRobots().size() == controlledRobots) {
+            for (int i = 0; i < robots + controlledRobots; i++) {
+                room.placeRobot(i, x[i], y[i], angle[i]);
+            }
+            return;
+        }
+
+        room.clearRobots();
+
+        for (int i = 0; i < robots; i++) {
+            AutomatedRobot robot = new AutomatedRobot(new Position(x[i], y[i]), room);
+            robot.setAngle(angle[i]);
+            room.addRobot(robot);
+        }
+        for (int i = robots; i < robots + controlledRobots; i++) {
+            ControlledRobot robot = new ControlledRobot(new Position(x[i], y[i]), room);
+            robot.setAngle(angle[i]);
+            room.addControlledRobot(robot);
+        }
+    }
+
+    /**
+     * Takes the state of all robots of another frame.
+     *
+     * @param other The frame to copy.
+     */
+    public void copy(LogFrame other) {
+        this.id = other.id;
+        this.robots = other.robots;
+        this.controlledRobots = other.controlledRobots;
+        reserve(robots + controlledRobots);
+        System.arraycopy(other.x, 0, x, 0, robots + controlledRobots);
+        System.arraycopy(other.y, 0, y, 0, robots + controlledRobots);
+        System.arraycopy(other.angle, 0, angle, 0, robots + controlledRobots);
+    }
+
+    /**
+     * Takes the state of all robots at a tick between two frames.
+     * The positions are interpolated linearly, the angles along the shorter way around the circle. If the frames
+     * do not hold the same robots, the earlier frame is taken as it is.
+     *
+     * @param from The frame before the tick.
+     * @param to The frame after the tick.
+     * @param id The tick, between the ids of both frames.
+     */
+    public void interpolate(LogFrame from, LogFrame to, int id) {
+        copy(from);
+        this.id = id;
+        if (to.robots != robots || to.controlledRobots != controlledRobots || to.id <= from.id) {
+            return;
+        }
+
+        double t = (double) (id - from.id) / (to.id - from.id);
+        for (int i = 0; i < robots + controlledRobots; i++) {
+            x[i] += (to.x[i] - x[i]) * t;
+            y[i] += (to.y[i] - y[i]) * t;
+            int turn = Math.floorMod(to.angle[i] - angle[i] + 180, 360) - 180;
+            angle[i] = Math.floorMod(angle[i] + (int) Math.round(turn * t), 360);
+        }
+    }
+
+    /**
+     * Removes all robots from the frame.
+     *
+     * @param id The new id of the frame.
+     */
+    public void clear(int id) {
+        this.id = id;
+        this.robots = 0;
+        this.controlledRobots = 0;
+    }
+
+    /**
+     * Adds an automated robot, automated robots have to be added before the controlled robots.
+     *
+     * @param x The X coordinate of the robot.
+     * @param y The Y coordinate of the robot.
+     * @param angle The angle of the robot.
+     */
+    public void addRobot(double x, double y, int angle) {
+        if (controlledRobots > 0) {
+            throw new IllegalStateException("Automated robots must precede controlled robots");
+        }
+        put(robots++, x, y, angle);
+    }
+
+    /**
+     * Adds a controlled robot.
+     *
+     * @param x The X coordinate of the robot.
+     * @param y The Y coordinate of the robot.
+     * @param angle The angle of the robot.
+     */
+    public void addControlledRobot(double x, double y, int angle) {
+        put(robots + controlledRobots++, x, y, angle);
+    }
+
+    /**
+     * Returns the number of all robots.
+     *
+     * @return The number of automated and controlled robots.
+     */
+    public int size() { return robots + controlledRobots; }
+
+    /**
+     * Returns the id of the frame.
+     *
+     * @return The id of the frame.
+     */
+    public int getId() { return id; }
+
+    /**
+     * Returns the number of automated robots.
+     *
+     * @return The number of automated robots.
+     */
+    public int getRobotCount() { return robots; }
+
+    /**
+     * Returns the number of controlled robots.
+     *
+     * @return The number of controlled robots.
+     */
+    public int getControlledRobotCount() { return controlledRobots; }
+
+    /**
+     * Returns the X coordinate of a robot, automated robots are followed by the controlled robots.
+     *
+     * @param index The index of the robot.
+     * @return The X coordinate of the robot.
+     */
+    public double getX(int index) { return x[index]; }
+
+    /**
+     * Returns the Y coordinate of a robot, automated robots are followed by the controlled robots.
+     *
+     * @param index The index of the robot.
+     * @return The Y coordinate of the robot.
+     */
+    public double getY(int index) { return y[index]; }
+
+    /**
+     * Returns the angle of a robot, automated robots are followed by the controlled robots.
+     *
+     * @param index The index of the robot.
+     * @return The angle of the robot.
+     */
+    public int getAngle(int index) { return angle[index]; }
+
+    /**
+     * Stores a robot at the specified index, the arrays grow if needed.
+     *
+     * @param index The index of the robot.
+     * @param x The X coordinate of the robot.
+     * @param y The Y coordinate of the robot.
+     * @param angle The angle of the robot.
+     */
+    private void put(int index, double x, double y, int angle) {
+        reserve(index + 1);
+        this.x[index] = x;
+        this.y[index] = y;
+        this.angle[index] = angle;
+    }
+
+    /**
+     * Grows the arrays to hold at least the specified number of robots.
+     *
+     * @param size The number of robots.
+     */
+    private void reserve(int size) {
+        if (size > x.length) {
+            int capacity = Math.max(size, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            angle = Arrays.copyOf(angle, capacity);
+        }
+    }
+
+}
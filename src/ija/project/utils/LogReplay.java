@@ -0,0 +1,71 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogReplay.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Replays a finished binary log.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.Room;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Replays a finished binary log by ticks.
+ * The frames are read through a ReplayReader, so any frame is decoded from its keyframe without reading the log
+ * from the start, and the ticks between the frames of a sampled log are interpolated.
+ */
+public class LogReplay implements ReplaySource, Closeable {
+
+    /** Reader of the log. */
+    private final ReplayReader reader;
+
+    /** Frame reused for showing the frames. */
+    private final LogFrame frame = new LogFrame();
+
+    /** Number of ticks the log covers. */
+    private final int ticks;
+
+    /**
+     * Opens a binary log for replaying.
+     *
+     * @param log The binary log, which is its first segment.
+     * @throws IOException If the log cannot be read or is not a binary log.
+     */
+    public LogReplay(File log) throws IOException {
+        this.reader = new ReplayReader(log);
+        try {
+            this.ticks = reader.getTickCount();
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getFrameCount() { return ticks; }
+
+    @Override
+    public void show(Room room, int id) {
+        try {
+            reader.readTick(id, frame);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading from log file", e);
+        }
+        frame.apply(room);
+    }
+
+    /**
+     * Closes the log.
+     *
+     * @throws IOException If the log cannot be closed.
+     */
+    @Override
+    public void close() throws IOException { reader.close(); }
+
+}
@@ -0,0 +1,201 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogSampler.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Picks the ticks of a run which are stored in the log.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.Room;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Picks the ticks of a run which are stored in the log, the ticks in between are interpolated on replay.
+ * In the fixed mode every interval-th tick is stored. In the adaptive mode a tick is stored as well whenever
+ * a robot stops following the motion it had since the last stored tick, e.g. when it starts turning or hits
+ * a wall. The tick before the change is stored, so the corner of the path is kept and the replay interpolates
+ * the straight parts between the corners, which is exact for robots moving or turning steadily.
+ * The first tick, every tick after which the number of robots changed and the last tick before a flush
+ * are always stored. The frames passed to the sink are reused, the sink has to copy them.
+ */
+public class LogSampler {
+
+    /** Largest interval, the angles are interpolated the shorter way around, which is wrong past half a turn. */
+    public static final int MAX_INTERVAL = 180;
+
+    /** Largest distance in pixels between the real and the interpolated position, a quantum of the log. */
+    private static final double TOLERANCE = 1.0 / 256;
+
+    /** Largest number of ticks between two stored ticks. */
+    private final int interval;
+
+    /** Whether a change of the motion of a robot stores a tick. */
+    private final boolean adaptive;
+
+    /** Receives the stored frames. */
+    private final Consumer<LogFrame> sink;
+
+    /** The last stored frame. */
+    private LogFrame sample = new LogFrame();
+
+    /** The last offered frame, if it was not stored. */
+    private LogFrame pending = new LogFrame();
+
+    /** The frame being offered. */
+    private LogFrame current = new LogFrame();
+
+    /** Whether a frame was stored since the start or the last restart. */
+    private boolean sampled = false;
+
+    /** Whether the pending frame holds a frame not yet stored. */
+    private boolean hasPending = false;
+
+    /** Movement along X per tick of every robot since the last stored frame. */
+    private double[] stepX = new double[16];
+
+    /** Movement along Y per tick of every robot since the last stored frame. */
+    private double[] stepY = new double[16];
+
+    /** Turn in degrees per tick of every robot since the last stored frame. */
+    private int[] turn = new int[16];
+
+    /**
+     * Creates a new sampler.
+     *
+     * @param interval The largest number of ticks between two stored ticks, at most MAX_INTERVAL.
+     * @param adaptive Whether a change of the motion of a robot stores a tick.
+     * @param sink Receives the stored frames, the frame objects are reused.
+     */
+    public LogSampler(int interval, boolean adaptive, Consumer<LogFrame> sink) {
+        if (interval < 1 || interval > MAX_INTERVAL) {
+            throw new IllegalArgumentException("Sample interval must be between 1 and " + MAX_INTERVAL);
+        }
+        this.interval = interval;
+        this.adaptive = adaptive;
+        this.sink = sink;
+    }
+
+    /**
+     * Offers the state of the room at a tick, the ticks have to grow.
+     *
+     * @param id The tick.
+     * @param room The room as an instance of the Room class.
+     */
+    public void offer(int id, Room room) {
+        current.capture(id, room);
+
+        if (!sampled || current.getRobotCount() != sample.getRobotCount() ||
+                current.getControlledRobotCount() != sample.getControlledRobotCount()) {
+            flush();
+            store();
+            return;
+        }
+
+        if (adaptive) {
+            if (!hasPending) {
+                measure();
+            } else if (!follows()) {
+                // the pending frame is the last one on the straight part, it starts the next one
+                swap();
+                store();
+                swap();
+                measure();
+            }
+        }
+
+        if (current.getId() - sample.getId() >= interval) {
+            store();
+        } else {
+            swap();
+            hasPending = true;
+        }
+    }
+
+    /**
+     * Stores the last offered frame if it was not stored yet, so the log holds every offered tick.
+     */
+    public void flush() {
+        if (hasPending) {
+            swap();
+            store();
+            swap();
+        }
+    }
+
+    /**
+     * Starts sampling again from a frame already stored, e.g. after the log was cut.
+     *
+     * @param frame The last frame of the log.
+     */
+    public void restart(LogFrame frame) {
+        sample.copy(frame);
+        sampled = true;
+        hasPending = false;
+    }
+
+    /**
+     * Stores the current frame, which becomes the sample.
+     */
+    private void store() {
+        sink.accept(current);
+        LogFrame stored = sample;
+        sample = current;
+        current = stored;
+        sampled = true;
+        hasPending = false;
+    }
+
+    /**
+     * Swaps the current and the pending frame.
+     */
+    private void swap() {
+        LogFrame swapped = pending;
+        pending = current;
+        current = swapped;
+    }
+
+    /**
+     * Measures the motion of every robot per tick between the sample and the current frame.
+     */
+    private void measure() {
+        int count = sample.size();
+        if (stepX.length < count) {
+            int capacity = Math.max(count, stepX.length * 2);
+            stepX = Arrays.copyOf(stepX, capacity);
+            stepY = Arrays.copyOf(stepY, capacity);
+            turn = Arrays.copyOf(turn, capacity);
+        }
+
+        int ticks = current.getId() - sample.getId();
+        for (int i = 0; i < count; i++) {
+            stepX[i] = (current.getX(i) - sample.getX(i)) / ticks;
+            stepY[i] = (current.getY(i) - sample.getY(i)) / ticks;
+            turn[i] = (Math.floorMod(current.getAngle(i) - sample.getAngle(i) + 180, 360) - 180) / ticks;
+        }
+    }
+
+    /**
+     * Checks if every robot of the current frame is where the motion measured since the sample takes it,
+     * and has not turned by half a turn or more, which the interpolation would take the other way around.
+     *
+     * @return True if the current frame can be interpolated from the sample.
+     */
+    private boolean follows() {
+        int ticks = current.getId() - sample.getId();
+        for (int i = 0; i < sample.size(); i++) {
+            if (Math.abs(sample.getX(i) + stepX[i] * ticks - current.getX(i)) > TOLERANCE ||
+                    Math.abs(sample.getY(i) + stepY[i] * ticks - current.getY(i)) > TOLERANCE ||
+                    Math.floorMod(sample.getAngle(i) + turn[i] * ticks, 360) != current.getAngle(i) ||
+                    Math.abs(turn[i] * ticks) >= 180) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,671 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogSegment.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: One segment of a binary log, plain or compressed.
+ */
+
+package ija.project.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One segment of a binary log, plain or compressed.
+ * A log is a sequence of segments, the first one is the file of the log itself, the segment n is the file
+ * of the log with .n inserted before the extension, e.g. SimMap1_2024-05-10_12-03-42.2.bin. Every segment is
+ * a complete binary log on its own, starting with a keyframe whose index in the whole log is a multiple of the
+ * keyframe interval, and has an index of its own. Every segment except the last one holds whole keyframe blocks,
+ * so where a segment starts follows from the indexes of the segments before it.
+ * <p>
+ * A closed segment may be compressed with Deflater into a file with the extension .z, which starts with
+ * COMPRESSED_MAGIC and the size of the plain segment. Its index stays plain, so the frames of a compressed
+ * segment are counted without inflating it. A compressed segment is inflated into memory when its frames are first
+ * needed. A plain segment is read through its channel, WINDOW_SIZE bytes around the frames being read at a time,
+ * and its index is read into memory. Nothing of a segment is mapped, so once it is closed its files can be
+ * truncated, moved or deleted on any platform.
+ */
+public class LogSegment implements Closeable {
+
+    /** Extension of a compressed segment, appended to the name of the plain segment. */
+    public static final String COMPRESSED_EXTENSION = ".z";
+
+    /** Magic number at the start of every compressed segment, the characters RLGZ. */
+    public static final int COMPRESSED_MAGIC = 0x524C475A;
+
+    /** Size of the header of a compressed segment in bytes. */
+    public static final int COMPRESSED_HEADER_SIZE = 12;
+
+    /** Size of the largest plain segment which is compressed, a compressed segment is inflated into one buffer. */
+    static final long MAX_COMPRESSED_SIZE = 1L << 30;
+
+    /** Number of bytes of a plain segment read at once, a larger frame is read as a whole. */
+    private static final int WINDOW_SIZE = 1 << 20;
+
+    /** Size of the buffers used to compress and inflate segments in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Name of a file belonging to a log: the name of the log, the number of the segment and the extension. */
+    private static final Pattern FILE_NAME = Pattern.compile("(.+?)(?:\\.(\\d+))?\\.bin(?:\\.z|\\.idx)?");
+
+    /** The plain file of the segment, which does not exist if the segment is compressed. */
+    private final File file;
+
+    /** The channel reading the plain segment, null if the segment is compressed. */
+    private final FileChannel channel;
+
+    /** Size of the plain segment in bytes. */
+    private final long size;
+
+    /** Bytes of a plain segment read last, or the inflated compressed segment, null until first needed. */
+    private ByteBuffer window;
+
+    /** Offset of the first byte of the window in the segment. */
+    private long windowStart;
+
+    /** Offsets and ids of the keyframes read from the index. */
+    private final ByteBuffer index;
+
+    /** Number of keyframes in the index. */
+    private final int keyframeCount;
+
+    /** Number of frames from one keyframe to the next one. */
+    private final int keyframeInterval;
+
+    /** Index of the first frame of the segment in the whole log. */
+    private final int firstFrame;
+
+    /** Number of frames in the segment. */
+    private final int frameCount;
+
+    /**
+     * Opens a segment for reading, its index is rebuilt if it is missing or does not match the segment.
+     * Only the frames of the last segment are counted, the other segments hold whole keyframe blocks.
+     *
+     * @param file The plain file of the segment.
+     * @param firstFrame The index of the first frame of the segment in the whole log.
+     * @param last Whether the segment is the last segment of the log.
+     * @throws IOException If the segment cannot be read or is not a binary log.
+     */
+    public LogSegment(File file, int firstFrame, boolean last) throws IOException {
+        this.file = file;
+        this.firstFrame = firstFrame;
+
+        if (file.isFile()) {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } else {
+            this.channel = null;
+        }
+
+        try {
+            this.size = channel != null ? channel.size() : readCompressedSize(compressedFile(file));
+            // the header of a compressed segment is read only if its index has to be rebuilt
+            int recorded = channel != null ? FrameCodec.readHeader(region(0, FrameCodec.HEADER_SIZE)) : 0;
+
+            ByteBuffer read = readIndex(ReplayReader.indexFile(file), last, recorded);
+            if (read == null) {
+                writeIndex(ReplayReader.indexFile(file), recordedInterval());
+                read = readIndex(ReplayReader.indexFile(file), last, recorded);
+                if (read == null) {
+                    throw new IOException("Error building log index");
+                }
+            }
+
+            this.index = read;
+            this.keyframeInterval = read.getShort(6);
+            this.keyframeCount = (read.limit() - ReplayReader.INDEX_HEADER_SIZE) / ReplayReader.INDEX_ENTRY_SIZE;
+            if (!last) {
+                this.frameCount = keyframeCount * keyframeInterval;
+            } else {
+                this.frameCount = keyframeCount == 0 ? 0 : (keyframeCount - 1) * keyframeInterval +
+                        countFrames(getKeyframeOffset(keyframeCount - 1));
+            }
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the plain file of a segment of a log.
+     *
+     * @param log The binary log, which is its first segment.
+     * @param segment The number of the segment.
+     * @return The plain file of the segment.
+     */
+    public static File segmentFile(File log, int segment) {
+        if (segment == 0) {
+            return log;
+        }
+
+        String path = log.getPath();
+        int extension = path.endsWith(".bin") ? path.length() - 4 : path.length();
+        return new File(path.substring(0, extension) + "." + segment + path.substring(extension));
+    }
+
+    /**
+     * Returns the compressed file of a segment.
+     *
+     * @param segment The plain file of the segment.
+     * @return The compressed file of the segment.
+     */
+    public static File compressedFile(File segment) { return new File(segment.getPath() + COMPRESSED_EXTENSION); }
+
+    /**
+     * Returns whether a segment exists, plain or compressed.
+     *
+     * @param segment The plain file of the segment.
+     * @return True if the plain or the compressed file exists.
+     */
+    public static boolean exists(File segment) { return segment.isFile() || compressedFile(segment).isFile(); }
+
+    /**
+     * Lists the segments of a log.
+     *
+     * @param log The binary log, which is its first segment.
+     * @return The plain files of the existing segments in their order, the list ends at the first missing segment.
+     */
+    public static List<File> list(File log) {
+        List<File> segments = new ArrayList<>();
+        for (File segment = log; exists(segment); segment = segmentFile(log, segments.size())) {
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the name of the log a file belongs to.
+     *
+     * @param fileName The name of a segment, of a compressed segment or of an index.
+     * @return The name of the log without the extension, or null if the file is not a part of a binary log.
+     */
+    public static String logName(String fileName) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Deletes a segment with its compressed file and its index.
+     *
+     * @param segment The plain file of the segment.
+     * @throws IOException If a file cannot be deleted.
+     */
+    public static void delete(File segment) throws IOException {
+        Files.deleteIfExists(segment.toPath());
+        Files.deleteIfExists(compressedFile(segment).toPath());
+        Files.deleteIfExists(ReplayReader.indexFile(segment).toPath());
+    }
+
+    /**
+     * Compresses a closed segment, the plain file is replaced by the compressed file once it is complete.
+     * Segments too large to be inflated into one buffer stay plain.
+     *
+     * @param segment The plain file of the segment.
+     * @return True if the segment was compressed.
+     * @throws IOException If the segment cannot be read or the compressed file cannot be written.
+     */
+    public static boolean compress(File segment) throws IOException {
+        File compressed = compressedFile(segment);
+        File temporary = new File(compressed.getPath() + ".tmp");
+
+        long size = segment.length();
+        if (size > MAX_COMPRESSED_SIZE) {
+            return false;
+        }
+
+        try (FileChannel source = FileChannel.open(segment.toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+            output.putInt(COMPRESSED_MAGIC);
+            output.putLong(size);
+
+            Deflater deflater = new Deflater();
+            try {
+                boolean end = false;
+                while (!deflater.finished()) {
+                    if (!end && deflater.needsInput()) {
+                        input.clear();
+                        end = source.read(input) < 0;
+                        input.flip();
+                        if (end) {
+                            deflater.finish();
+                        } else {
+                            deflater.setInput(input);
+                        }
+                    }
+
+                    deflater.deflate(output);
+                    output.flip();
+                    while (output.hasRemaining()) {
+                        target.write(output);
+                    }
+                    output.clear();
+                }
+            } finally {
+                deflater.end();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary.toPath());
+            throw e;
+        }
+
+        Files.move(temporary.toPath(), compressed.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(segment.toPath());
+        return true;
+    }
+
+    /**
+     * Turns a compressed segment back into a plain segment, so it can be written again.
+     *
+     * @param segment The plain file of the segment.
+     * @throws IOException If the compressed file cannot be read or the plain file cannot be written.
+     */
+    public static void decompress(File segment) throws IOException {
+        File compressed = compressedFile(segment);
+        File temporary = new File(segment.getPath() + ".tmp");
+
+        ByteBuffer plain = inflate(compressed, readCompressedSize(compressed));
+        try (FileChannel target = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (plain.hasRemaining()) {
+                target.write(plain);
+            }
+        }
+
+        Files.move(temporary.toPath(), segment.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(compressed.toPath());
+    }
+
+    /**
+     * Returns the index of the first frame of the segment in the whole log.
+     *
+     * @return The index of the first frame.
+     */
+    public int getFirstFrame() { return firstFrame; }
+
+    /**
+     * Returns the number of frames in the segment.
+     *
+     * @return The number of frames.
+     */
+    public int getFrameCount() { return frameCount; }
+
+    /**
+     * Returns the number of frames from one keyframe to the next one.
+     *
+     * @return The keyframe interval.
+     */
+    public int getKeyframeInterval() { return keyframeInterval; }
+
+    /**
+     * Returns whether the segment is compressed.
+     *
+     * @return True if the segment is read from its compressed file.
+     */
+    public boolean isCompressed() { return channel == null; }
+
+    /**
+     * Returns the offset of a keyframe from the index.
+     *
+     * @param keyframe The number of the keyframe in the segment.
+     * @return The offset of the keyframe in bytes.
+     */
+    public long getKeyframeOffset(int keyframe) {
+        return index.getLong(ReplayReader.INDEX_HEADER_SIZE + keyframe * ReplayReader.INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * Returns the id of a keyframe from the index.
+     *
+     * @param keyframe The number of the keyframe in the segment.
+     * @return The id of the keyframe.
+     */
+    public int getKeyframeId(int keyframe) {
+        return index.getInt(ReplayReader.INDEX_HEADER_SIZE + keyframe * ReplayReader.INDEX_ENTRY_SIZE + Long.BYTES);
+    }
+
+    /**
+     * Returns the number of keyframes in the segment.
+     *
+     * @return The number of keyframes.
+     */
+    public int getKeyframeCount() { return keyframeCount; }
+
+    /**
+     * Returns the id of the frame starting at the specified offset without decoding the frame.
+     *
+     * @param offset The offset of the frame.
+     * @return The id of the frame.
+     * @throws IOException If there is no whole frame at the offset.
+     */
+    public int idAt(long offset) throws IOException { return FrameCodec.idAt(frameAt(offset)); }
+
+    /**
+     * Returns a buffer positioned at the frame starting at the specified offset and holding the whole frame.
+     * The buffer shares the window of the segment, it is valid until the next frame of the segment is read.
+     *
+     * @param offset The offset of the frame.
+     * @return The buffer holding the frame.
+     * @throws IOException If the segment cannot be read or inflated.
+     */
+    public ByteBuffer frameAt(long offset) throws IOException {
+        return region(offset, frameSize(offset));
+    }
+
+    /**
+     * Returns the size of the frame starting at the specified offset from its type and the length of its body.
+     *
+     * @param offset The offset of the frame.
+     * @return The size of the frame in bytes.
+     * @throws IOException If there is no whole frame at the offset.
+     */
+    public long frameSize(long offset) throws IOException {
+        ByteBuffer header = region(offset, Math.min(size - offset, 6));
+        int start = header.position();
+        try {
+            byte type = header.get();
+            if (type != FrameCodec.KEYFRAME && type != FrameCodec.DELTA) {
+                throw new IOException("Unknown frame type " + type);
+            }
+            long length = FrameCodec.getVarLong(header);
+            long frameSize = header.position() - start + length;
+            if (length < 0 || offset + frameSize > size) {
+                throw new IOException("Truncated frame");
+            }
+            return frameSize;
+        } catch (RuntimeException e) {
+            throw new IOException("Truncated frame", e);
+        }
+    }
+
+    /**
+     * Frees the inflated frames of a compressed segment, they are inflated again when needed.
+     */
+    public void release() {
+        if (channel == null) {
+            window = null;
+        }
+    }
+
+    /**
+     * Closes the segment, nothing of it is held open afterwards.
+     *
+     * @throws IOException If the segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Counts the frames from the specified offset to the end of the segment.
+     *
+     * @param offset The offset of the first frame.
+     * @return The number of frames.
+     * @throws IOException If the segment does not end with a whole frame.
+     */
+    private int countFrames(long offset) throws IOException {
+        int count = 0;
+        while (offset < size) {
+            offset += frameSize(offset);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns a buffer positioned at the specified offset of the segment and holding at least the specified length.
+     * A plain segment is read into the window starting at the offset unless the window holds the region already,
+     * so reading the frames in their order reads every byte once. A compressed segment is inflated as a whole.
+     * The buffer shares the window, it is valid until the next region of the segment is read.
+     *
+     * @param offset The offset in the segment.
+     * @param length The number of bytes needed.
+     * @return The buffer whose position is the offset.
+     * @throws IOException If the region is outside of the segment or cannot be read or inflated.
+     */
+    private ByteBuffer region(long offset, long length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw new IOException("Frame outside of the log");
+        }
+
+        if (channel == null) {
+            if (window == null) {
+                ByteBuffer inflated = inflate(compressedFile(file), size);
+                FrameCodec.readHeader(inflated.duplicate());
+                window = inflated;
+                windowStart = 0;
+            }
+        } else if (window == null || offset < windowStart || offset + length > windowStart + window.limit()) {
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Frame too large");
+            }
+            if (window == null || window.capacity() < length) {
+                window = ByteBuffer.allocateDirect((int) Math.max(WINDOW_SIZE, length));
+            }
+
+            window.clear();
+            window.limit((int) Math.min(window.capacity(), size - offset));
+            while (window.hasRemaining()) {
+                if (channel.read(window, offset + window.position()) < 0) {
+                    window = null;
+                    throw new IOException("Truncated log segment");
+                }
+            }
+            window.flip();
+            windowStart = offset;
+        }
+
+        ByteBuffer buffer = window.duplicate();
+        buffer.position((int) (offset - windowStart));
+        return buffer;
+    }
+
+    /**
+     * Reads the index into memory if it exists and matches the segment.
+     * The index matches if it has the keyframe interval recorded in the segment, starts with the first frame and
+     * its last keyframe is in the segment. The frames after the last keyframe of the last segment have to end
+     * exactly at its end without reaching the next keyframe.
+     *
+     * @param file The index file.
+     * @param last Whether the segment is the last segment of the log.
+     * @param recorded The keyframe interval recorded in the segment, 0 if it is not known.
+     * @return The index, or null if it is missing or stale.
+     * @throws IOException If the index cannot be read.
+     */
+    private ByteBuffer readIndex(File file, boolean last, int recorded) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (FileChannel indexChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = indexChannel.size();
+            if (length < ReplayReader.INDEX_HEADER_SIZE || length > Integer.MAX_VALUE ||
+                    (length - ReplayReader.INDEX_HEADER_SIZE) % ReplayReader.INDEX_ENTRY_SIZE != 0) {
+                return null;
+            }
+
+            ByteBuffer read = ByteBuffer.allocate((int) length);
+            while (read.hasRemaining()) {
+                if (indexChannel.read(read, read.position()) < 0) {
+                    return null;
+                }
+            }
+
+            int interval = read.getShort(6);
+            if (read.getInt(0) != ReplayReader.INDEX_MAGIC || read.getShort(4) != FrameCodec.VERSION ||
+                    interval < 1 || recorded > 0 && interval != recorded) {
+                return null;
+            }
+
+            if (length == ReplayReader.INDEX_HEADER_SIZE) {
+                return size == FrameCodec.HEADER_SIZE ? read : null;
+            }
+
+            long lastKeyframe = read.getLong((int) length - ReplayReader.INDEX_ENTRY_SIZE);
+            if (read.getLong(ReplayReader.INDEX_HEADER_SIZE) != FrameCodec.HEADER_SIZE || lastKeyframe >= size) {
+                return null;
+            }
+            try {
+                return !last || countFrames(lastKeyframe) <= interval ? read : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the keyframe interval the segment was written with from its header.
+     * Logs which do not record it were all written with the keyframe interval of the Logger.
+     *
+     * @return The keyframe interval.
+     * @throws IOException If the segment cannot be read or is not a binary log.
+     */
+    private int recordedInterval() throws IOException {
+        int interval = FrameCodec.readHeader(region(0, FrameCodec.HEADER_SIZE));
+        return interval > 0 ? interval : Logger.KEYFRAME_INTERVAL;
+    }
+
+    /**
+     * Scans the segment and writes the offsets and the ids of its keyframes to the index.
+     *
+     * @param file The index file.
+     * @param interval The number of frames from one keyframe to the next one.
+     * @throws IOException If the segment is not a valid binary log or the index cannot be written.
+     */
+    private void writeIndex(File file, int interval) throws IOException {
+        try (FileChannel indexChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            ReplayReader.writeIndexHeader(buffer, interval);
+
+            long offset = FrameCodec.HEADER_SIZE;
+            for (int frame = 0; offset < size; frame++) {
+                if (frame % interval == 0) {
+                    if (FrameCodec.typeAt(region(offset, 1)) != FrameCodec.KEYFRAME) {
+                        throw new IOException("Missing keyframe at frame " + (firstFrame + frame));
+                    }
+                    if (buffer.remaining() < ReplayReader.INDEX_ENTRY_SIZE) {
+                        drain(indexChannel, buffer);
+                    }
+                    ReplayReader.writeIndexEntry(buffer, offset, idAt(offset));
+                }
+                offset += frameSize(offset);
+            }
+            drain(indexChannel, buffer);
+        }
+    }
+
+    /**
+     * Reads the size of the plain segment from the header of a compressed segment.
+     *
+     * @param compressed The compressed file.
+     * @return The size of the plain segment in bytes.
+     * @throws IOException If the file cannot be read or is not a compressed segment.
+     */
+    private static long readCompressedSize(File compressed) throws IOException {
+        try (FileChannel source = FileChannel.open(compressed.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(COMPRESSED_HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (source.read(header) < 0) {
+                    throw new IOException("Not a compressed log segment");
+                }
+            }
+            if (header.getInt(0) != COMPRESSED_MAGIC) {
+                throw new IOException("Not a compressed log segment");
+            }
+
+            long size = header.getLong(4);
+            if (size < FrameCodec.HEADER_SIZE || size > MAX_COMPRESSED_SIZE) {
+                throw new IOException("Corrupted compressed log segment");
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Inflates a compressed segment into memory outside of the heap.
+     *
+     * @param compressed The compressed file.
+     * @param size The size of the plain segment in bytes.
+     * @return The buffer holding the plain segment.
+     * @throws IOException If the file cannot be read or is corrupted.
+     */
+    private static ByteBuffer inflate(File compressed, long size) throws IOException {
+        ByteBuffer plain = ByteBuffer.allocateDirect((int) size);
+
+        try (FileChannel source = FileChannel.open(compressed.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+            source.position(COMPRESSED_HEADER_SIZE);
+
+            Inflater inflater = new Inflater();
+            try {
+                while (!inflater.finished()) {
+                    if (inflater.needsInput()) {
+                        input.clear();
+                        if (source.read(input) < 0) {
+                            throw new IOException("Truncated compressed log segment");
+                        }
+                        input.flip();
+                        inflater.setInput(input);
+                    }
+                    if (inflater.inflate(plain) == 0 && !plain.hasRemaining() && !inflater.finished()) {
+                        throw new IOException("Corrupted compressed log segment");
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupted compressed log segment", e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        if (plain.hasRemaining()) {
+            throw new IOException("Truncated compressed log segment");
+        }
+        plain.flip();
+        return plain;
+    }
+
+    /**
+     * Writes the content of the buffer to the channel and clears the buffer.
+     *
+     * @param target The channel to write to.
+     * @param buffer The buffer to write.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static void drain(FileChannel target, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,656 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogWriter.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Writes frames of a binary log on a thread of its own.
+ */
+
+package ija.project.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Writes frames of a binary log on a thread of its own.
+ * The simulation thread only copies the state of the robots into a free slot of a bounded ring of frames.
+ * The writer thread takes all queued frames at once, encodes them and writes the whole batch with one write,
+ * so the simulation thread never waits for the disk unless the ring is full. What happens then is decided
+ * by the backpressure policy. The writer keeps metrics of the queue depth and of the write latency.
+ * The log is split into segments, see LogSegment. The writer rolls over to a new segment at the first aligned
+ * keyframe after the segment reached the frame or the byte limit, and hands every closed segment over,
+ * e.g. to be compressed.
+ */
+public class LogWriter {
+
+    /**
+     * What happens to a frame logged while the ring is full.
+     */
+    public enum Backpressure {
+        /** The simulation thread waits until the writer frees a slot, no frame is lost. */
+        BLOCK,
+
+        /** The frame replaces the newest frame not yet taken by the writer, the replaced frame is lost. */
+        COALESCE,
+
+        /** The frame is dropped and counted. */
+        DROP
+    }
+
+    /** Size of the write buffer in bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Size of the write buffer of the index in bytes. */
+    private static final int INDEX_BUFFER_SIZE = 1 << 13;
+
+    /** The log, which is its first segment. */
+    private final File log;
+
+    /** Number of frames after which a segment is closed. */
+    private final int segmentFrames;
+
+    /** Number of bytes after which a segment is closed. */
+    private final long segmentBytes;
+
+    /** Receives every closed segment, may be null. */
+    private final Consumer<File> closedSegments;
+
+    /** The segment being written. */
+    private File file;
+
+    /** The number of the segment being written. */
+    private int segment = 0;
+
+    /** Index of the first frame of every segment up to the segment being written. */
+    private int[] segmentStarts = new int[16];
+
+    /** The channel writing the segment. */
+    private FileChannel channel;
+
+    /** The channel writing the keyframe offset index of the segment. */
+    private FileChannel indexChannel;
+
+    /** Encoded frames not yet written to the log, used by the writer thread only. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** Keyframe entries not yet written to the index, used by the writer thread only. */
+    private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(INDEX_BUFFER_SIZE);
+
+    /** Codec encoding the frames, used by the writer thread only. */
+    private final FrameCodec encoder;
+
+    /** Index of the next frame written to the log, used by the writer thread and by a drained truncate only. */
+    private int nextIndex = 0;
+
+    /** Slots of the ring, each frame object is reused. */
+    private final LogFrame[] ring;
+
+    /** Policy applied when the ring is full. */
+    private final Backpressure backpressure;
+
+    /** Lock guarding the ring and the metrics. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when a frame was queued or the writer is closed. */
+    private final Condition queued = lock.newCondition();
+
+    /** Signalled when the writer finished a batch. */
+    private final Condition written = lock.newCondition();
+
+    /** The writer thread. */
+    private final Thread thread;
+
+    /** Sequence number of the oldest queued frame. */
+    private long head = 0;
+
+    /** Sequence number of the oldest frame not yet taken by the writer. */
+    private long taken = 0;
+
+    /** Sequence number of the next queued frame. */
+    private long tail = 0;
+
+    /** Whether no more frames will be queued. */
+    private boolean closed = false;
+
+    /** The first error of the writer thread, null if none. */
+    private IOException failure = null;
+
+    /** Offset at which the next frame starts in the segment. */
+    private long end = FrameCodec.HEADER_SIZE;
+
+    /** Number of frames written to the log. */
+    private long writtenFrames = 0;
+
+    /** Number of dropped frames. */
+    private long dropped = 0;
+
+    /** Number of frames replaced by newer frames. */
+    private long coalesced = 0;
+
+    /** Largest number of queued frames seen. */
+    private int maxQueueDepth = 0;
+
+    /** Number of writes to the log. */
+    private long writes = 0;
+
+    /** Total time spent in writes to the log in nanoseconds. */
+    private long writeNanos = 0;
+
+    /** Longest write to the log in nanoseconds. */
+    private long maxWriteNanos = 0;
+
+    /**
+     * Creates the first segment of the log and its index and starts the writer thread.
+     *
+     * @param file The log to create, it must not exist.
+     * @param capacity The number of frames the ring holds.
+     * @param backpressure The policy applied when the ring is full.
+     * @param keyframeInterval The number of frames from one keyframe to the next one.
+     * @param segmentFrames The number of frames after which a segment is closed, rounded up to whole keyframe blocks.
+     * @param segmentBytes The number of bytes after which a segment is closed at the next aligned keyframe.
+     * @param closedSegments Receives the plain file of every closed segment on the writer thread, may be null.
+     */
+    public LogWriter(File file, int capacity, Backpressure backpressure, int keyframeInterval, int segmentFrames,
+                     long segmentBytes, Consumer<File> closedSegments) {
+        if (capacity < 1 || segmentFrames < 1 || segmentBytes < 1) {
+            throw new IllegalArgumentException("Capacity and segment limits must be positive");
+        }
+
+        this.log = file;
+        this.segmentFrames = segmentFrames;
+        this.segmentBytes = segmentBytes;
+        this.closedSegments = closedSegments;
+        this.encoder = new FrameCodec(keyframeInterval);
+        this.backpressure = backpressure;
+        this.ring = new LogFrame[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new LogFrame();
+        }
+
+        try {
+            openSegment(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Error creating log file", e);
+        }
+
+        this.thread = new Thread(this::run, "log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a copy of a frame, the frame object stays with the caller.
+     * The frames are written in the order they are queued, their ids have to grow, but may skip ticks.
+     *
+     * @param frame The frame as an instance of the LogFrame class.
+     * @return True if a new frame was queued, false if the frame was dropped or replaced the newest queued frame.
+     */
+    public boolean submit(LogFrame frame) {
+        lock.lock();
+        try {
+            checkFailure();
+
+            if (tail - head == ring.length) {
+                if (backpressure == Backpressure.DROP) {
+                    dropped++;
+                    return false;
+                }
+
+                if (backpressure == Backpressure.COALESCE && tail > taken) {
+                    ring[(int) ((tail - 1) % ring.length)].copy(frame);
+                    coalesced++;
+                    return false;
+                }
+
+                while (tail - head == ring.length) {
+                    written.awaitUninterruptibly();
+                    checkFailure();
+                }
+            }
+
+            ring[(int) (tail % ring.length)].copy(frame);
+            tail++;
+            maxQueueDepth = Math.max(maxQueueDepth, (int) (tail - head));
+            queued.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all queued frames are written to the log.
+     */
+    public void drain() {
+        lock.lock();
+        try {
+            while (head < tail && failure == null) {
+                written.awaitUninterruptibly();
+            }
+            checkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cuts the log after the specified number of frames, the next frame is written as a keyframe.
+     * The segments after the segment of the cut are deleted, the segment of the cut and its index are truncated,
+     * so the cost does not depend on the size of the log. A compressed segment is turned back into a plain one.
+     * The caller has to drain the writer first and make sure no segment is being compressed.
+     *
+     * @param frames The number of frames to keep.
+     * @param offset The offset of the first frame to cut off in its segment.
+     * @throws IOException If the log cannot be truncated.
+     */
+    public void truncate(int frames, long offset) throws IOException {
+        lock.lock();
+        try {
+            if (head < tail) {
+                throw new IllegalStateException("Log writer not drained");
+            }
+
+            // the decoder of a replay resets on any keyframe, so the one written next does not have to be aligned
+            // and does not go to the index, the encoder does not have to decode the kept frames of the block
+            encoder.reset();
+
+            int target = segment;
+            while (segmentStarts[target] > frames) {
+                target--;
+            }
+            if (target < segment) {
+                channel.close();
+                indexChannel.close();
+                for (int i = segment; i > target; i--) {
+                    LogSegment.delete(LogSegment.segmentFile(log, i));
+                }
+
+                segment = target;
+                file = LogSegment.segmentFile(log, target);
+                if (!file.isFile()) {
+                    LogSegment.decompress(file);
+                }
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                indexChannel = FileChannel.open(ReplayReader.indexFile(file).toPath(), StandardOpenOption.WRITE);
+            }
+
+            int interval = encoder.getKeyframeInterval();
+            int kept = frames - segmentStarts[segment];
+            channel.truncate(offset);
+            nextIndex = frames;
+            indexChannel.truncate(ReplayReader.INDEX_HEADER_SIZE +
+                    (long) (kept + interval - 1) / interval * ReplayReader.INDEX_ENTRY_SIZE);
+            end = offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the queued frames, stops the writer thread and closes the log, the last segment is handed over as well.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            thread.join();
+            closeSegment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while closing log file", e);
+        } catch (IOException e) {
+            throw new RuntimeException("Error closing log file", e);
+        }
+
+        lock.lock();
+        try {
+            checkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of segments written so far, including the segment being written.
+     *
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        lock.lock();
+        try {
+            return segment + 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of frames waiting to be written.
+     *
+     * @return The number of queued frames.
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return (int) (tail - head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the largest number of frames waiting to be written at once.
+     *
+     * @return The largest queue depth.
+     */
+    public int getMaxQueueDepth() {
+        lock.lock();
+        try {
+            return maxQueueDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of frames written to the log.
+     *
+     * @return The number of written frames.
+     */
+    public long getWrittenFrames() {
+        lock.lock();
+        try {
+            return writtenFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of frames dropped because the ring was full.
+     *
+     * @return The number of dropped frames.
+     */
+    public long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of frames replaced by newer frames because the ring was full.
+     *
+     * @return The number of coalesced frames.
+     */
+    public long getCoalesced() {
+        lock.lock();
+        try {
+            return coalesced;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of writes to the log.
+     *
+     * @return The number of writes.
+     */
+    public long getWrites() {
+        lock.lock();
+        try {
+            return writes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the average time of a write to the log.
+     *
+     * @return The average write latency in nanoseconds, 0 before the first write.
+     */
+    public long getAverageWriteNanos() {
+        lock.lock();
+        try {
+            return writes == 0 ? 0 : writeNanos / writes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the longest time of a write to the log.
+     *
+     * @return The longest write latency in nanoseconds.
+     */
+    public long getMaxWriteNanos() {
+        lock.lock();
+        try {
+            return maxWriteNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the writer thread, takes all queued frames, writes them and frees their slots.
+     */
+    private void run() {
+        while (true) {
+            long from;
+            long to;
+
+            lock.lock();
+            try {
+                while (taken == tail && !closed) {
+                    queued.awaitUninterruptibly();
+                }
+                if (taken == tail) {
+                    break;
+                }
+                from = taken;
+                to = tail;
+                taken = tail;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                for (long sequence = from; sequence < to; sequence++) {
+                    // a coalescing producer may only touch frames not yet taken, these are not
+                    LogFrame frame = ring[(int) (sequence % ring.length)];
+                    append(encoder.encode(frame, nextIndex), nextIndex, frame.getId());
+                    nextIndex++;
+                }
+                flush();
+            } catch (IOException | RuntimeException e) {
+                lock.lock();
+                try {
+                    failure = e instanceof IOException ? (IOException) e : new IOException(e);
+                    head = to;
+                    written.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                break;
+            }
+
+            lock.lock();
+            try {
+                head = to;
+                writtenFrames += to - from;
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        try {
+            flush();
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                if (failure == null) {
+                    failure = e;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Appends an encoded frame to the write buffer, the buffer is written when the frame does not fit.
+     *
+     * @param encoded The encoded frame.
+     * @param index The index of the frame in the log.
+     * @param id The id of the frame.
+     * @throws IOException If the log cannot be written.
+     */
+    private void append(ByteBuffer encoded, int index, int id) throws IOException {
+        if (index % encoder.getKeyframeInterval() == 0 && index > segmentStarts[segment] &&
+                (index - segmentStarts[segment] >= segmentFrames || end >= segmentBytes)) {
+            roll(index);
+        }
+
+        if (encoded.remaining() > buffer.remaining() || indexBuffer.remaining() < ReplayReader.INDEX_ENTRY_SIZE) {
+            flush();
+        }
+
+        if (index % encoder.getKeyframeInterval() == 0) {
+            ReplayReader.writeIndexEntry(indexBuffer, end, id);
+        }
+        end += encoded.remaining();
+
+        if (encoded.remaining() > buffer.capacity()) {
+            write(channel, encoded);
+        } else {
+            buffer.put(encoded);
+        }
+    }
+
+    /**
+     * Closes the segment being written and starts the next one with the specified frame.
+     *
+     * @param index The index of the first frame of the next segment, an aligned keyframe.
+     * @throws IOException If the segments cannot be written.
+     */
+    private void roll(int index) throws IOException {
+        flush();
+        closeSegment();
+
+        lock.lock();
+        try {
+            segment++;
+            if (segment == segmentStarts.length) {
+                segmentStarts = Arrays.copyOf(segmentStarts, segment * 2);
+            }
+            segmentStarts[segment] = index;
+        } finally {
+            lock.unlock();
+        }
+
+        openSegment(LogSegment.segmentFile(log, segment));
+    }
+
+    /**
+     * Creates a segment and its index and starts both with their headers.
+     *
+     * @param file The plain file of the segment, it must not exist.
+     * @throws IOException If the segment cannot be created.
+     */
+    private void openSegment(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.indexChannel = FileChannel.open(ReplayReader.indexFile(file).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        FrameCodec.writeHeader(buffer, encoder.getKeyframeInterval());
+        ReplayReader.writeIndexHeader(indexBuffer, encoder.getKeyframeInterval());
+        end = FrameCodec.HEADER_SIZE;
+    }
+
+    /**
+     * Closes the segment being written and hands it over.
+     *
+     * @throws IOException If the segment cannot be closed.
+     */
+    private void closeSegment() throws IOException {
+        channel.close();
+        indexChannel.close();
+        if (closedSegments != null) {
+            closedSegments.accept(file);
+        }
+    }
+
+    /**
+     * Writes the buffered frames to the log and the buffered keyframe entries to the index.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            long start = System.nanoTime();
+            write(channel, buffer);
+            long nanos = System.nanoTime() - start;
+
+            lock.lock();
+            try {
+                writes++;
+                writeNanos += nanos;
+                maxWriteNanos = Math.max(maxWriteNanos, nanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+        buffer.clear();
+
+        indexBuffer.flip();
+        write(indexChannel, indexBuffer);
+        indexBuffer.clear();
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer to the end of a file.
+     *
+     * @param target The channel of the file.
+     * @param source The buffer to write.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void write(FileChannel target, ByteBuffer source) throws IOException {
+        long position = target.size();
+        while (source.hasRemaining()) {
+            position += target.write(source, position);
+        }
+    }
+
+    /**
+     * Rethrows the error of the writer thread on the calling thread, the lock has to be held.
+     */
+    private void checkFailure() {
+        if (failure != null) {
+            throw new RuntimeException("Error writing to log file", failure);
+        }
+    }
+
+}
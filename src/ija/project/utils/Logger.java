@@ -2,9 +2,9 @@
  * Project name: Robot Simulation
  * File name: Logger.java
  * Date: 05.05.2024
- * Last update: 05.05.2024
+ * Last update: 18.10.2026
  * Author: Maksym Podhornyi(xpodho08)
- * Description: Logs the state of the room to a JSON file.
+ * Description: Logs the state of the room to a binary file.
  */
 
 package ija.project.utils;
@@ -12,45 +12,121 @@ package ija.project.utils;
 import ija.project.game.*;
 import java.io.*;
 
-import org.json.JSONObject;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import org.json.JSONArray;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
 /**
- * Logs the state of the room to a JSON file.
+ * Logs the state of the room to a binary file.
+ * Every tick is offered to a LogSampler, which stores at least every SAMPLE_INTERVAL-th tick and, in the adaptive
+ * mode, every tick at which a robot changes its motion. The stored ticks are frames encoded by FrameCodec,
+ * a keyframe every KEYFRAME_INTERVAL frames and deltas in between, the id of a frame is its tick.
+ * The tick only copies the state of the robots, a LogWriter encodes and writes the frames in batches
+ * on a thread of its own, through one file channel which stays open for the whole run.
+ * The offset and the id of every keyframe are appended to an index next to the log, replay reads the log through
+ * a ReplayReader, which decodes the frames around a tick from their keyframe and interpolates between them.
+ * The log is split into segments of at most SEGMENT_FRAMES frames or about SEGMENT_BYTES bytes. A LogArchiver
+ * compresses every closed segment in the background and keeps the binary logs of the log directory within
+ * MAX_AGE and MAX_BYTES.
+ * The most recent REPLAY_FRAMES frames are also kept in a ReplayBuffer, so rewinding within them reads
+ * nothing from the disk, older frames are read from the log.
  */
-public class Logger {
+public class Logger implements ReplaySource {
+
+    /** Number of frames from one keyframe to the next one. */
+    public static final int KEYFRAME_INTERVAL = 120;
+
+    /** Largest number of ticks between two stored frames, a quarter of a second at the normal speed. */
+    public static final int SAMPLE_INTERVAL = 30;
+
+    /** Whether a frame is also stored whenever a robot changes its motion. */
+    public static final boolean ADAPTIVE_SAMPLING = true;
+
+    /** Number of frames the writer queues by default. */
+    public static final int QUEUE_CAPACITY = 256;
+
+    /** Number of frames after which a segment is closed. */
+    public static final int SEGMENT_FRAMES = 72000;
+
+    /** Number of bytes after which a segment is closed. */
+    public static final long SEGMENT_BYTES = 16L << 20;
+
+    /** Age in milliseconds after which a log is deleted, thirty days. */
+    public static final long MAX_AGE = 30L * 24 * 60 * 60 * 1000;
+
+    /** Number of bytes all binary logs may take together. */
+    public static final long MAX_BYTES = 1L << 30;
+
+    /** Pattern of the date and time in the name of a log, the log is named after its map and its start. */
+    public static final String DATE_FORMAT = "yyyy-MM-dd_HH-mm-ss";
+
+    /** Number of the most recent frames kept in memory, thirty seconds at the normal speed. */
+    public static final int REPLAY_FRAMES = 3600;
+
+    /** Number of bytes the most recent frames may take in memory. */
+    public static final long REPLAY_BYTES = 64L << 20;
 
     /** The file to log to. */
     private final File file;
 
-     /**      The unique ID of the frame. */
+     /**      Writer of the frames. */
+    private final LogWriter writer;
+
+     /**      Compressor of the closed segments. */
+    private final LogArchiver archiver;
+
+     /**      The most recent frames. */
+    private final ReplayBuffer recent = new ReplayBuffer(REPLAY_FRAMES, REPLAY_BYTES);
+
+     /**      Picker of the ticks stored in the log. */
+    private final LogSampler sampler;
+
+     /**      Frame reused for replaying. */
+    private final LogFrame frame = new LogFrame();
+
+     /**      The unique ID of the next tick. */
     private int uniqueID;
 
-     /**      The current frame. */
+     /**      Number of ticks kept by the next reset, the id after the last shown tick. */
     private int currentFrame;
 
-     /**      Whether the frames are loaded. */
-    private boolean isLoaded;
+     /**      Reader of the logged frames, null unless a replay is running. */
+    private ReplayReader reader;
 
-     /**      The frames. */
-    private JSONArray frames;
+    /**
+     * Constructs a new Logger, a tick waits for the writer when QUEUE_CAPACITY frames are queued.
+     *
+     * @param mapName The name of the map to log as a string.
+     */
+    public Logger(String mapName) { this(mapName, QUEUE_CAPACITY, LogWriter.Backpressure.BLOCK); }
+
+    /**
+     * Constructs a new Logger sampling the ticks by SAMPLE_INTERVAL and ADAPTIVE_SAMPLING.
+     *
+     * @param mapName The name of the map to log as a string.
+     * @param capacity The number of frames the writer queues.
+     * @param backpressure What happens to a frame logged while the queue is full.
+     */
+    public Logger(String mapName, int capacity, LogWriter.Backpressure backpressure) {
+        this(mapName, capacity, backpressure, SAMPLE_INTERVAL, ADAPTIVE_SAMPLING);
+    }
 
     /**
      * Constructs a new Logger.
      *
      * @param mapName The name of the map to log as a string.
+     * @param capacity The number of frames the writer queues.
+     * @param backpressure What happens to a frame logged while the queue is full.
+     * @param sampleInterval The largest number of ticks between two stored frames, 1 stores every tick.
+     * @param adaptive Whether a frame is also stored whenever a robot changes its motion.
      */
-    public Logger(String mapName) {
+    public Logger(String mapName, int capacity, LogWriter.Backpressure backpressure, int sampleInterval,
+                  boolean adaptive) {
 
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        SimpleDateFormat formatter = new SimpleDateFormat(DATE_FORMAT);
         String dateTime = formatter.format(new Date());
 
         this.file = new File(System.getProperty("user.dir") + File.separator + "data" +
-                File.separator + "logs" + File.separator + mapName + "_" + dateTime + ".json");
+                File.separator + "logs" + File.separator + mapName + "_" + dateTime + ".bin");
 
         File directories = new File(file.getParent());
 
@@ -60,13 +136,11 @@ public class Logger {
             }
         }
 
-        try {
-            if (!file.createNewFile()) {
-                throw new Exception("File already exists");
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error creating log file");
-        }
+        this.archiver = new LogArchiver(directories, file, MAX_AGE, MAX_BYTES);
+        this.archiver.retain();
+        this.writer = new LogWriter(file, capacity, backpressure, KEYFRAME_INTERVAL, SEGMENT_FRAMES, SEGMENT_BYTES,
+                archiver::compress);
+        this.sampler = new LogSampler(sampleInterval, adaptive, writer::submit);
 
         this.uniqueID = 0;
         this.currentFrame = 0;
@@ -74,134 +148,45 @@ public class Logger {
     }
 
     /**
-     * Logs the state of the room.
+     * Logs the state of the room as the next tick.
+     * Every tick is kept in memory, the sampler decides if it is stored in the log. A frame dropped or merged
+     * into a later one by the backpressure policy leaves a longer gap, which the replay interpolates.
      *
      * @param room The room to log as an instance of the Room class.
      */
     public void log(Room room) {
 
-        if (isLoaded) {
-            isLoaded = false;
-        }
-
-        try {
-            RandomAccessFile raf = new RandomAccessFile(file, "rw");
-            long len = raf.length();
-
-            if (len == 0) {
-                raf.writeBytes("[]");
-                len = raf.length();
-            }
-
-            raf.seek(len - 1);
+        closeReader();
 
-            JSONObject main = new JSONObject();
-            main.put("id", uniqueID);
-
-            JSONObject robots = new JSONObject();
-            for (AutomatedRobot robot : room.getRobots()) {
-                JSONObject obj = new JSONObject();
-                obj.put("x", robot.getPosition().getX());
-                obj.put("y", robot.getPosition().getY());
-                obj.put("angle", robot.getAngle());
-                robots.put("robot" + room.getRobots().indexOf(robot), obj);
-            }
-            main.put("robots", robots);
-
-            JSONObject controlledRobots = new JSONObject();
-            for (ControlledRobot robot : room.getControlledRobots()) {
-                JSONObject obj = new JSONObject();
-                obj.put("x", robot.getPosition().getX());
-                obj.put("y", robot.getPosition().getY());
-                obj.put("angle", robot.getAngle());
-                controlledRobots.put("robot" + room.getControlledRobots().indexOf(robot), obj);
-            }
-            main.put("controlledRobots", controlledRobots);
-
-            // Handle the comma and bracket for JSON syntax correctness
-            if (len > 2) { // More than just "[]"
-                raf.writeBytes(",");
-            }
-
-            // Append the new object and close the JSON array bracket
-            raf.writeBytes(main.toString(4) + "]");
-            raf.close();
-
-            uniqueID++;
-            currentFrame++;
-        } catch (IOException e) {
-            throw new RuntimeException("Error writing to log file", e);
-        }
+        recent.record(uniqueID, room);
+        sampler.offer(uniqueID, room);
+        uniqueID++;
+        currentFrame++;
     }
 
 
     /**
-     * Gets the last frame.
+     * Shows a logged tick in the room, the ticks after it are cut off by the next reset.
+     * Recent ticks are taken from memory, older ticks are interpolated from the frames of the log.
      *
-     * @param room The room to get the last frame for as an instance of the Room class.
-     * @param order The order of the frame to get.
+     * @param room The room to show the tick in as an instance of the Room class.
+     * @param id The id of the tick.
      */
-    public void getLastFrame(Room room, int order) {
-
-        int targetId = currentFrame - 1;
-
-        if ((order == 1 && targetId - 1 >= uniqueID) || (order == -1 && targetId < 0)) {
-
-            return;
+    @Override
+    public void show(Room room, int id) {
 
+        if (id < 0 || id >= uniqueID) {
+            throw new IndexOutOfBoundsException("Frame " + id + " out of " + uniqueID);
         }
 
-        room.getRobots().clear();
-        room.getControlledRobots().clear();
-
         try {
 
-            if (!isLoaded) {
-                isLoaded = true;
-                String content = new String(Files.readAllBytes(Paths.get(file.getAbsolutePath())));
-                frames = new JSONArray(content);
-                if (order == 1) {
-                    currentFrame = frames.length();
-                }
-            }
-
-            for (int i = 0; i < frames.length(); i++) {
-                JSONObject frame = frames.getJSONObject(i);
-                if (frame.getInt("id") == targetId) {
-
-                    if (!frame.getJSONObject("robots").isEmpty()) {
-
-                        JSONArray robots = frame.getJSONObject("robots").names();
-                        for (int j = 0; j < robots.length(); j++) {
-                            JSONObject robot = frame.getJSONObject("robots").getJSONObject(robots.getString(j));
-                            AutomatedRobot automatedRobot = new AutomatedRobot(new Position(robot.getDouble("x"), robot.getDouble("y")), room);
-                            automatedRobot.setAngle(robot.getInt("angle"));
-                            room.addRobot(automatedRobot);
-                        }
-
-                    }
-
-                    if (!frame.getJSONObject("controlledRobots").isEmpty()) {
-                        JSONArray controlledRobots = frame.getJSONObject("controlledRobots").names();
-                        for (int j = 0; j < controlledRobots.length(); j++) {
-                            JSONObject robot = frame.getJSONObject("controlledRobots").getJSONObject(controlledRobots.getString(j));
-                            ControlledRobot controlledRobot = new ControlledRobot(new Position(robot.getDouble("x"), robot.getDouble("y")), room);
-                            controlledRobot.setAngle(robot.getInt("angle"));
-                            room.addControlledRobot(controlledRobot);
-                        }
-                    }
-
-                    break;
-                }
-            }
+            read(id);
 
-            if (order == 1) {
-                currentFrame++;
-            } else {
-                currentFrame--;
-            }
+            frame.apply(room);
+            currentFrame = id + 1;
 
-        } catch (Exception e) {
+        } catch (IOException e) {
             System.out.println(e.getMessage());
             throw new RuntimeException("Error reading from log file");
         }
@@ -209,23 +194,45 @@ public class Logger {
     }
 
     /**
-     * Resets the logger.
+     * Returns the number of logged ticks.
+     *
+     * @return The number of ticks.
+     */
+    @Override
+    public int getFrameCount() { return uniqueID; }
+
+    /**
+     * Resets the logger, the ticks after the last shown tick are cut off the end of the file.
+     * The file is truncated after the last frame not later than the shown tick, which costs the same for a log
+     * of any size, and the shown tick is stored as the last frame unless it is stored already.
      */
     public void reset() {
 
+        if (currentFrame >= uniqueID) {
+            currentFrame = uniqueID;
+            return;
+        }
+
         try {
-            String content = new String(Files.readAllBytes(Paths.get(file.getAbsolutePath())));
-            JSONArray frames = new JSONArray(content);
-            JSONArray newFrames = new JSONArray();
-            for (int i = 0; i < frames.length(); i++) {
-                if (frames.getJSONObject(i).getInt("id") < currentFrame) {
-                    newFrames.put(frames.getJSONObject(i));
-                }
+            int last = currentFrame - 1;
+            read(last);
+            openReader();
+
+            int kept = reader.find(last) + 1;
+            boolean stored = kept > 0 && reader.getId(kept - 1) == last;
+            if (kept < reader.getFrameCount()) {
+                long offset = reader.getOffset(kept);
+                closeReader();
+                archiver.dropDeferred();
+                writer.truncate(kept, offset);
             }
-            try (FileWriter writer = new FileWriter(file, false)) { // overwrite the file
-                writer.write(newFrames.toString(4));
+            closeReader();
+            if (!stored) {
+                writer.submit(frame);
             }
-        } catch (Exception e) {
+            sampler.restart(frame);
+            recent.truncate(currentFrame);
+        } catch (IOException e) {
             System.out.println(e.getMessage());
             throw new RuntimeException("Error reading from log file");
         }
@@ -234,7 +241,73 @@ public class Logger {
 
     }
 
+    /**
+     * Writes the remaining frames and closes the file.
+     */
+    public void close() {
 
+        closeReader();
+        sampler.flush();
+        writer.close();
+        archiver.close();
 
+    }
+
+    /**
+     * Returns the file of the log.
+     *
+     * @return The file of the log.
+     */
+    public File getFile() { return file; }
+
+    /**
+     * Returns the writer of the frames, which keeps the metrics of the log.
+     *
+     * @return The writer as an instance of the LogWriter class.
+     */
+    public LogWriter getWriter() { return writer; }
+
+    /**
+     * Reads a logged tick into the replay frame, from memory if it is recent, otherwise from the log.
+     *
+     * @param id The id of the tick.
+     * @throws IOException If the log cannot be read.
+     */
+    private void read(int id) throws IOException {
+        if (recent.contains(id)) {
+            recent.read(id, frame);
+        } else {
+            openReader();
+            reader.readTick(id, frame);
+        }
+    }
+
+    /**
+     * Opens the reader of a replay, every tick logged so far is written to the log first.
+     *
+     * @throws IOException If the log cannot be read.
+     */
+    private void openReader() throws IOException {
+        if (reader == null) {
+            sampler.flush();
+            writer.drain();
+            archiver.drain();
+            reader = new ReplayReader(file);
+        }
+    }
+
+    /**
+     * Closes the reader of a finished replay.
+     */
+    private void closeReader() {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Error closing log file", e);
+            }
+            reader = null;
+        }
+    }
 
 }
@@ -0,0 +1,508 @@
+/**
+ * Project name: Robot Simulation
+ * File name: MapCatalog.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Neonila Mashlai(xmashl00)
+ * Description: Lists the maps with their metadata, cached and kept up to date by watching the map directory.
+ */
+
+package ija.project.utils;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lists the maps with their metadata, cached and kept up to date by watching the map directory.
+ * A map is its JSON file and its binary conversion, see MapFile, the metadata is read from the conversion,
+ * a JSON map without an up to date conversion is converted first. The metadata is cached in the file CACHE_NAME
+ * together with the sizes and modification times of the files of the map.
+ * The first refresh lists the directory once and reads only the maps new or changed since they were cached.
+ * Later refreshes do not list the directory, they take the changed files from a WatchService and look only
+ * at their maps, so a refresh costs nothing while no map changes. Files which are not maps are skipped.
+ */
+public class MapCatalog implements Closeable {
+
+    /** Name of the file caching the metadata in the map directory. */
+    public static final String CACHE_NAME = "maps.catalog";
+
+    /** Magic number at the start of the cache, the characters MCAT. */
+    private static final int CACHE_MAGIC = 0x4D434154;
+
+    /** Version of the format of the cache. */
+    private static final short CACHE_VERSION = 2;
+
+    /** The directory holding the maps. */
+    private final File directory;
+
+    /** The cached maps by their names. */
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /** Watcher of the map directory, null if the directory is not watched. */
+    private WatchService watcher;
+
+    /** Whether the cache file has been read. */
+    private boolean loaded = false;
+
+    /**
+     * Creates a catalog of the maps of a directory, nothing is read until the first refresh.
+     *
+     * @param directory The directory holding the maps.
+     */
+    public MapCatalog(File directory) { this.directory = directory; }
+
+    /**
+     * Creates a catalog of the maps in data/maps.
+     */
+    public MapCatalog() {
+        this(new File(System.getProperty("user.dir") + File.separator + "data" + File.separator + "maps"));
+    }
+
+    /**
+     * Brings the catalog up to date with the map directory and returns the maps sorted by their names.
+     * The directory is listed only if it is not watched, or the watcher lost track of the changes.
+     * A refresh may run on any thread, e.g. in the background while the cached maps are shown.
+     *
+     * @return The maps as a list of instances of the Entry class.
+     * @throws RuntimeException If the map directory cannot be listed.
+     */
+    public synchronized List<Entry> refresh() {
+        boolean changed = false;
+        if (!loaded) {
+            loadCache();
+            loaded = true;
+        }
+
+        if (watcher == null) {
+            // the watch starts before the listing, so no change made during the listing is missed
+            watch();
+            changed = scanDirectory();
+        } else {
+            Set<String> names = new HashSet<>();
+            boolean overflow = false;
+            for (WatchKey key = watcher.poll(); key != null; key = watcher.poll()) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        String name = mapName(event.context().toString());
+                        if (name != null) {
+                            names.add(name);
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    // the directory is gone, it is watched again once it exists
+                    closeWatcher();
+                    overflow = true;
+                }
+            }
+
+            if (overflow) {
+                changed = scanDirectory();
+            } else {
+                for (String name : names) {
+                    changed |= update(name, signature(name));
+                }
+            }
+        }
+
+        if (changed) {
+            saveCache();
+        }
+
+        return sorted();
+    }
+
+    /**
+     * Returns the maps as they were last cached, sorted by their names, without looking at the map directory.
+     * Only the cache file is read, so the maps can be shown at once while the catalog is refreshed.
+     *
+     * @return The maps as a list of instances of the Entry class.
+     */
+    public synchronized List<Entry> cached() {
+        if (!loaded) {
+            loadCache();
+            loaded = true;
+        }
+        return sorted();
+    }
+
+    /**
+     * Stops watching the map directory.
+     */
+    @Override
+    public synchronized void close() { closeWatcher(); }
+
+    /**
+     * Returns the name of the map a file of the map directory belongs to.
+     *
+     * @param fileName The name of the file.
+     * @return The name of the map, null if the file is not a map.
+     */
+    public static String mapName(String fileName) {
+        if (fileName.endsWith(".json")) {
+            return fileName.substring(0, fileName.length() - ".json".length());
+        }
+        if (fileName.endsWith(".bin")) {
+            return fileName.substring(0, fileName.length() - ".bin".length());
+        }
+        return null;
+    }
+
+    /**
+     * Starts watching the map directory for created, modified and deleted files.
+     */
+    private void watch() {
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            directory.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            // without a watcher every refresh lists the directory
+            closeWatcher();
+        }
+    }
+
+    /**
+     * Stops watching the map directory.
+     */
+    private void closeWatcher() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // the watcher is dropped anyway
+            }
+            watcher = null;
+        }
+    }
+
+    /**
+     * Lists the map directory and brings every map up to date.
+     *
+     * @return True if any map was added, changed or removed.
+     * @throws RuntimeException If the directory cannot be listed.
+     */
+    private boolean scanDirectory() {
+        Map<String, Signature> found = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory.toPath())) {
+            for (Path file : files) {
+                String name = mapName(file.getFileName().toString());
+                if (name != null) {
+                    // one call reads everything the signature needs
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        found.computeIfAbsent(name, key -> new Signature()).add(attributes.size(),
+                                attributes.lastModifiedTime().toMillis());
+                    }
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // no map directory, no maps
+        } catch (IOException e) {
+            // the next refresh lists the directory again
+            closeWatcher();
+            throw new RuntimeException("Error listing maps", e);
+        }
+
+        boolean changed = entries.keySet().retainAll(found.keySet());
+        for (Map.Entry<String, Signature> map : found.entrySet()) {
+            changed |= update(map.getKey(), map.getValue());
+        }
+        return changed;
+    }
+
+    /**
+     * Brings a map up to date, the map is read again only if its files changed since it was cached.
+     *
+     * @param name The name of the map.
+     * @param signature The files of the map, null if it has none.
+     * @return True if the map was added, changed or removed.
+     */
+    private boolean update(String name, Signature signature) {
+        if (signature == null) {
+            return entries.remove(name) != null;
+        }
+
+        Entry entry = entries.get(name);
+        if (entry != null && entry.bytes == signature.bytes && entry.modified == signature.modified) {
+            return false;
+        }
+        entries.put(name, scan(name));
+        return true;
+    }
+
+    /**
+     * Returns the sizes and modification times of the files of a map.
+     *
+     * @param name The name of the map.
+     * @return The signature of the files, null if the map has no files.
+     */
+    private Signature signature(String name) {
+        Signature signature = null;
+        for (File file : new File[] {new File(directory, name + ".json"), new File(directory, name + ".bin")}) {
+            if (file.isFile()) {
+                signature = signature == null ? new Signature() : signature;
+                signature.add(file.length(), file.lastModified());
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Reads the metadata of a map from its binary conversion, a JSON map is converted first if its conversion
+     * is missing or older. A map which cannot be read is kept with negative dimensions, so it is still listed
+     * and can be deleted, but is not read again until it changes.
+     *
+     * @param name The name of the map.
+     * @return The metadata of the map.
+     */
+    private Entry scan(String name) {
+        Entry entry = new Entry();
+        entry.name = name;
+        entry.columns = -1;
+        entry.rows = -1;
+
+        File json = new File(directory, name + ".json");
+        File binary = new File(directory, name + ".bin");
+        try {
+            if (!binary.isFile() || binary.lastModified() < json.lastModified()) {
+                Loader.convert(json, binary);
+            }
+
+            MapFile.Info info = MapFile.readInfo(binary);
+            entry.columns = info.getColumns();
+            entry.rows = info.getRows();
+            entry.obstacles = info.getObstacleCount();
+            entry.robots = info.getRobotCount();
+            entry.controlledRobots = info.getControlledRobotCount();
+            entry.hash = info.getHash();
+        } catch (IOException | RuntimeException e) {
+            // the map stays in the catalog, the list shows it as unreadable
+        }
+
+        // the signature is taken after the conversion, which belongs to the map
+        Signature signature = signature(name);
+        entry.bytes = signature == null ? 0 : signature.bytes;
+        entry.modified = signature == null ? 0 : signature.modified;
+        return entry;
+    }
+
+    /**
+     * Returns the cached maps sorted by their names.
+     *
+     * @return The maps as a list of instances of the Entry class.
+     */
+    private List<Entry> sorted() {
+        List<Entry> maps = new ArrayList<>(entries.values());
+        maps.sort((first, second) -> first.name.compareTo(second.name));
+        return maps;
+    }
+
+    /**
+     * Reads the cached metadata, a missing or outdated cache is ignored.
+     */
+    private void loadCache() {
+        File cache = new File(directory, CACHE_NAME);
+        if (!cache.isFile()) {
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(cache)))) {
+            if (input.readInt() != CACHE_MAGIC || input.readShort() != CACHE_VERSION) {
+                return;
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry();
+                entry.name = input.readUTF();
+                entry.modified = input.readLong();
+                entry.bytes = input.readLong();
+                entry.columns = input.readInt();
+                entry.rows = input.readInt();
+                entry.obstacles = input.readInt();
+                entry.robots = input.readInt();
+                entry.controlledRobots = input.readInt();
+                entry.hash = input.readLong();
+                entries.put(entry.name, entry);
+            }
+        } catch (IOException e) {
+            // a damaged cache is rebuilt from the maps
+            entries.clear();
+        }
+    }
+
+    /**
+     * Writes the metadata to the cache, replacing the cache at once so a reader never sees half of it.
+     */
+    private void saveCache() {
+        File cache = new File(directory, CACHE_NAME);
+        File temporary = new File(directory, CACHE_NAME + ".tmp");
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(temporary)))) {
+                output.writeInt(CACHE_MAGIC);
+                output.writeShort(CACHE_VERSION);
+                output.writeInt(entries.size());
+                for (Entry entry : entries.values()) {
+                    output.writeUTF(entry.name);
+                    output.writeLong(entry.modified);
+                    output.writeLong(entry.bytes);
+                    output.writeInt(entry.columns);
+                    output.writeInt(entry.rows);
+                    output.writeInt(entry.obstacles);
+                    output.writeInt(entry.robots);
+                    output.writeInt(entry.controlledRobots);
+                    output.writeLong(entry.hash);
+                }
+            }
+            Files.move(temporary.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the catalog still works without a cache, it is only slower to build
+        }
+    }
+
+    /**
+     * The total size and the latest modification of the files of a map.
+     */
+    private static class Signature {
+
+        /** Number of bytes of the files. */
+        private long bytes = 0;
+
+        /** Time of the last modification of any of the files in milliseconds. */
+        private long modified = 0;
+
+        /**
+         * Adds a file of the map.
+         *
+         * @param size The number of bytes of the file.
+         * @param lastModified The time of the last modification of the file in milliseconds.
+         */
+        private void add(long size, long lastModified) {
+            bytes += size;
+            modified = Math.max(modified, lastModified);
+        }
+
+    }
+
+    /**
+     * The metadata of one map.
+     */
+    public static class Entry {
+
+        /** Name of the map, the name of its files without the extensions. */
+        private String name;
+
+        /** Time of the last modification of the map in milliseconds. */
+        private long modified;
+
+        /** Number of bytes of all files of the map. */
+        private long bytes;
+
+        /** Number of columns, negative if the map cannot be read. */
+        private int columns;
+
+        /** Number of rows, negative if the map cannot be read. */
+        private int rows;
+
+        /** Number of obstacles. */
+        private int obstacles;
+
+        /** Number of automated robots. */
+        private int robots;
+
+        /** Number of controlled robots. */
+        private int controlledRobots;
+
+        /** Hash of the content of the map. */
+        private long hash;
+
+        /**
+         * Creates empty metadata, it is filled in by the catalog.
+         */
+        private Entry() {}
+
+        /**
+         * Returns the name of the map.
+         *
+         * @return The name of the map.
+         */
+        public String getName() { return name; }
+
+        /**
+         * Returns the time of the last modification of the map.
+         *
+         * @return The time in milliseconds since the epoch.
+         */
+        public long getModified() { return modified; }
+
+        /**
+         * Returns the number of bytes of all files of the map.
+         *
+         * @return The number of bytes.
+         */
+        public long getBytes() { return bytes; }
+
+        /**
+         * Checks if the map could be read.
+         *
+         * @return True if the metadata of the map is known.
+         */
+        public boolean isReadable() { return columns > 0; }
+
+        /**
+         * Returns the number of columns of the map.
+         *
+         * @return The number of columns, negative if the map cannot be read.
+         */
+        public int getColumns() { return columns; }
+
+        /**
+         * Returns the number of rows of the map.
+         *
+         * @return The number of rows, negative if the map cannot be read.
+         */
+        public int getRows() { return rows; }
+
+        /**
+         * Returns the number of obstacles of the map.
+         *
+         * @return The number of obstacles.
+         */
+        public int getObstacleCount() { return obstacles; }
+
+        /**
+         * Returns the number of automated robots of the map.
+         *
+         * @return The number of automated robots.
+         */
+        public int getRobotCount() { return robots; }
+
+        /**
+         * Returns the number of controlled robots of the map.
+         *
+         * @return The number of controlled robots.
+         */
+        public int getControlledRobotCount() { return controlledRobots; }
+
+        /**
+         * Returns the hash of the content of the map.
+         *
+         * @return The hash, which changes whenever the content of the map changes.
+         */
+        public long getHash() { return hash; }
+
+    }
+
+}
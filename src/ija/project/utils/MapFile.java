@@ -0,0 +1,320 @@
+/**
+ * Project name: Robot Simulation
+ * File name: MapFile.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Neonila Mashlai(xmashl00)
+ * Description: Reads and writes maps in the binary map format.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes maps in the binary map format.
+ * The map starts with a header of HEADER_SIZE bytes: the magic number, the version of the format, the flags,
+ * the int numbers of columns and rows, the long seed and the int numbers of automated and controlled robots.
+ * The header is followed by the obstacle bitmap, one bit per cell in row order packed into longs the way
+ * ObstacleField keeps it, and by the int column and row of every automated robot followed by the controlled robots.
+ * The size of the map follows from its header, so the whole map is read with one read and checked before
+ * any of it is used. Maps are in map cells, a cell is one obstacle or one robot.
+ */
+public class MapFile {
+
+    /** Magic number at the start of every binary map, the characters RMAP. */
+    public static final int MAGIC = 0x524D4150;
+
+    /** Version of the format. */
+    public static final short VERSION = 1;
+
+    /** Size of the header of the map in bytes. */
+    public static final int HEADER_SIZE = 32;
+
+    /** Flag of a map with a seed, a map without one gets a random seed when loaded. */
+    private static final short SEEDED = 1;
+
+    /**
+     * The class has only static methods.
+     */
+    private MapFile() {}
+
+    /**
+     * Reads a binary map.
+     *
+     * @param file The binary map.
+     * @return The room of the map in map cells, with a random seed if the map has none.
+     * @throws IOException If the map cannot be read or is not a binary map of this version.
+     */
+    public static Room read(File file) throws IOException {
+        ByteBuffer buffer = readFully(file);
+        Info info = readHeader(buffer);
+
+        Room room = new Room(info.columns, info.rows, 1);
+        if (info.seeded) {
+            room.setSeed(info.seed);
+        }
+
+        // only the set bits are visited, a word of free cells costs one comparison
+        LongBuffer bitmap = buffer.asLongBuffer();
+        int words = bitmapWords(info.columns, info.rows);
+        for (int word = 0; word < words; word++) {
+            for (long bits = bitmap.get(word); bits != 0; bits &= bits - 1) {
+                long cell = ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+                if (cell >= (long) info.columns * info.rows) {
+                    throw new IOException("Corrupted map");
+                }
+                room.addObstacle(new Obstacle(new Position(cell % info.columns, cell / info.columns)));
+            }
+        }
+
+        buffer.position(buffer.position() + words * Long.BYTES);
+        for (int i = 0; i < info.robots; i++) {
+            room.addRobot(new AutomatedRobot(new Position(buffer.getInt(), buffer.getInt()), room));
+        }
+        for (int i = 0; i < info.controlledRobots; i++) {
+            room.addControlledRobot(new ControlledRobot(new Position(buffer.getInt(), buffer.getInt()), room));
+        }
+
+        return room;
+    }
+
+    /**
+     * Reads the metadata of a binary map without building its room, the obstacles are counted in the bitmap
+     * and the whole map is hashed.
+     *
+     * @param file The binary map.
+     * @return The metadata as an instance of the Info class.
+     * @throws IOException If the map cannot be read or is not a binary map of this version.
+     */
+    public static Info readInfo(File file) throws IOException {
+        ByteBuffer buffer = readFully(file);
+        Info info = readHeader(buffer);
+
+        LongBuffer bitmap = buffer.asLongBuffer();
+        int words = bitmapWords(info.columns, info.rows);
+        for (int word = 0; word < words; word++) {
+            info.obstacles += Long.bitCount(bitmap.get(word));
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.rewind());
+        info.hash = crc.getValue();
+        return info;
+    }
+
+    /**
+     * Reads a whole file with one read.
+     *
+     * @param file The file.
+     * @return The buffer holding the file between its position and limit.
+     * @throws IOException If the file cannot be read or cannot be a binary map.
+     */
+    private static ByteBuffer readFully(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a binary map");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Truncated map");
+                }
+            }
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * Reads and checks the header of a map, the size of the map has to match the header.
+     *
+     * @param buffer The buffer holding the whole map, its position is moved to the bitmap.
+     * @return The metadata from the header, without the number of obstacles.
+     * @throws IOException If the buffer does not hold a binary map of this version.
+     */
+    private static Info readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary map");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported map version " + version);
+        }
+
+        Info info = new Info();
+        info.seeded = (buffer.getShort() & SEEDED) != 0;
+        info.columns = buffer.getInt();
+        info.rows = buffer.getInt();
+        info.seed = buffer.getLong();
+        info.robots = buffer.getInt();
+        info.controlledRobots = buffer.getInt();
+
+        if (info.columns <= 0 || info.rows <= 0 || info.robots < 0 || info.controlledRobots < 0 ||
+                buffer.limit() != HEADER_SIZE + (long) bitmapWords(info.columns, info.rows) * Long.BYTES +
+                        2L * Integer.BYTES * ((long) info.robots + info.controlledRobots)) {
+            throw new IOException("Corrupted map");
+        }
+        return info;
+    }
+
+    /**
+     * Writes a room as a binary map, the map is replaced at once so a reader never sees half of it.
+     *
+     * @param file The binary map to write, an existing file is replaced.
+     * @param room The room in map cells as an instance of the Room class.
+     * @param seeded Whether the seed of the room is stored.
+     * @throws IOException If the map cannot be written.
+     */
+    public static void write(File file, Room room, boolean seeded) throws IOException {
+        int columns = room.getColumns();
+        int rows = room.getRows();
+        int robots = room.getRobots().size();
+        int controlledRobots = room.getControlledRobots().size();
+
+        long[] bitmap = new long[bitmapWords(columns, rows)];
+        for (Obstacle obstacle : room.getObstacles()) {
+            long cell = (long) obstacle.getPosition().getY() * columns + (long) obstacle.getPosition().getX();
+            bitmap[(int) (cell >>> 6)] |= 1L << cell;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bitmap.length * Long.BYTES +
+                2 * Integer.BYTES * (robots + controlledRobots));
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort(seeded ? SEEDED : 0);
+        buffer.putInt(columns);
+        buffer.putInt(rows);
+        buffer.putLong(seeded ? room.getSeed() : 0);
+        buffer.putInt(robots);
+        buffer.putInt(controlledRobots);
+
+        buffer.asLongBuffer().put(bitmap);
+        buffer.position(buffer.position() + bitmap.length * Long.BYTES);
+
+        for (AutomatedRobot robot : room.getRobots()) {
+            buffer.putInt((int) robot.getPosition().getX());
+            buffer.putInt((int) robot.getPosition().getY());
+        }
+        for (ControlledRobot robot : room.getControlledRobots()) {
+            buffer.putInt((int) robot.getPosition().getX());
+            buffer.putInt((int) robot.getPosition().getY());
+        }
+        buffer.flip();
+
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the number of longs of the obstacle bitmap of a map.
+     *
+     * @param columns The number of columns of the map.
+     * @param rows The number of rows of the map.
+     * @return The number of longs.
+     * @throws IOException If the bitmap does not fit into a map.
+     */
+    private static int bitmapWords(int columns, int rows) throws IOException {
+        long words = ((long) columns * rows + 63) >>> 6;
+        if (words > Integer.MAX_VALUE / Long.BYTES) {
+            throw new IOException("Map too large");
+        }
+        return (int) words;
+    }
+
+    /**
+     * The metadata of a binary map.
+     */
+    public static class Info {
+
+        /** Number of columns of the map. */
+        private int columns;
+
+        /** Number of rows of the map. */
+        private int rows;
+
+        /** Whether the map has a seed. */
+        private boolean seeded;
+
+        /** Seed of the map, 0 if it has none. */
+        private long seed;
+
+        /** Number of obstacles of the map. */
+        private int obstacles;
+
+        /** Number of automated robots of the map. */
+        private int robots;
+
+        /** Number of controlled robots of the map. */
+        private int controlledRobots;
+
+        /** Hash of the content of the map. */
+        private long hash;
+
+        /**
+         * Creates empty metadata, it is filled in from the header of a map.
+         */
+        private Info() {}
+
+        /**
+         * Returns the number of columns of the map.
+         *
+         * @return The number of columns.
+         */
+        public int getColumns() { return columns; }
+
+        /**
+         * Returns the number of rows of the map.
+         *
+         * @return The number of rows.
+         */
+        public int getRows() { return rows; }
+
+        /**
+         * Returns the number of obstacles of the map.
+         *
+         * @return The number of obstacles.
+         */
+        public int getObstacleCount() { return obstacles; }
+
+        /**
+         * Returns the number of automated robots of the map.
+         *
+         * @return The number of automated robots.
+         */
+        public int getRobotCount() { return robots; }
+
+        /**
+         * Returns the number of controlled robots of the map.
+         *
+         * @return The number of controlled robots.
+         */
+        public int getControlledRobotCount() { return controlledRobots; }
+
+        /**
+         * Returns the hash of the content of the map, which changes whenever the map changes.
+         *
+         * @return The CRC32C of the whole binary map.
+         */
+        public long getHash() { return hash; }
+
+    }
+
+}
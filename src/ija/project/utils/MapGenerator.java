@@ -0,0 +1,405 @@
+/**
+ * Project name: Robot Simulation
+ * File name: MapGenerator.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Neonila Mashlai(xmashl00)
+ * Description: Generates large maps from a seed, e.g. for load testing.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates large maps from a seed, e.g. for load testing.
+ * The same size, layout, density, number of robots and seed always give the same map, the seed is also the seed
+ * of the robots of the room, so the runs on the map are reproducible too. The obstacles are laid out in a bitmap
+ * of the cells first and added to the room at once, the robots are placed in random free cells afterwards.
+ * Corridors and aisles are two cells wide, a robot touching a wall on both sides could not move.
+ * The room is in map cells, see Loader.
+ */
+public class MapGenerator {
+
+    /**
+     * The layouts of the generated maps, the meaning of the density differs by the layout.
+     */
+    public enum Layout {
+
+        /** Obstacles scattered over the room, the density is the share of blocked cells. */
+        SCATTER,
+
+        /** A maze of corridors, the density is the share of the walls between corridors kept, 1 for a perfect maze. */
+        MAZE,
+
+        /** Rows of shelves of a warehouse separated by aisles, the density is the share of the shelf cells filled. */
+        AISLES,
+
+        /** An open floor inside of the outer wall, the density is the share of cells holding a pillar. */
+        OPEN
+
+    }
+
+    /** Width of a corridor, an aisle and a shelf in cells. */
+    private static final int CORRIDOR = 2;
+
+    /** Number of shelf cells along a row of shelves between two cross aisles. */
+    private static final int SHELF_LENGTH = 24;
+
+    /** Number of failed attempts to place a robot in a random cell after which the free cells are listed. */
+    private static final int PLACEMENT_ATTEMPTS = 64;
+
+    /** Number of columns of the map. */
+    private final int columns;
+
+    /** Number of rows of the map. */
+    private final int rows;
+
+    /** Seed of the map and of its robots. */
+    private final long seed;
+
+    /** Random generator of the layout and the robots. */
+    private SplittableRandom random;
+
+    /** Blocked cells of the map, one bit per cell in row order. */
+    private long[] blocked;
+
+    /** Free cells holding no robot, null until the map gets too crowded to place robots at random. */
+    private int[] freeCells;
+
+    /** Number of free cells in the list. */
+    private int freeCount;
+
+    /**
+     * Creates a generator of maps of the specified size.
+     *
+     * @param columns The number of columns of the map.
+     * @param rows The number of rows of the map.
+     * @param seed The seed of the map and of its robots.
+     */
+    public MapGenerator(int columns, int rows, long seed) {
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Map dimensions must be positive");
+        }
+        if ((long) columns * rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Map too large");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.seed = seed;
+    }
+
+    /**
+     * Generates a map.
+     *
+     * @param layout The layout of the obstacles.
+     * @param density The density of the obstacles between 0 and 1, see Layout.
+     * @param robots The number of automated robots.
+     * @param controlledRobots The number of controlled robots.
+     * @return The room of the map in map cells.
+     * @throws IllegalArgumentException If the density is out of range or the robots do not fit into the free cells.
+     */
+    public Room generate(Layout layout, double density, int robots, int controlledRobots) {
+        if (!(density >= 0 && density <= 1)) {
+            throw new IllegalArgumentException("Density must be between 0 and 1");
+        }
+        if (robots < 0 || controlledRobots < 0) {
+            throw new IllegalArgumentException("Number of robots must not be negative");
+        }
+
+        random = new SplittableRandom(seed);
+        blocked = new long[(int) (((long) columns * rows + 63) >>> 6)];
+        freeCells = null;
+        freeCount = 0;
+
+        switch (layout) {
+            case SCATTER:
+                scatter(0, 0, columns, rows, density);
+                break;
+            case MAZE:
+                maze(density);
+                break;
+            case AISLES:
+                aisles(density);
+                break;
+            case OPEN:
+                border();
+                scatter(1, 1, columns - 1, rows - 1, density);
+                break;
+        }
+
+        Room room = new Room(columns, rows, 1);
+        room.setSeed(seed);
+
+        // only the set bits are visited, a word of free cells costs one comparison
+        for (int word = 0; word < blocked.length; word++) {
+            for (long bits = blocked[word]; bits != 0; bits &= bits - 1) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                room.addObstacle(new Obstacle(new Position(cell % columns, cell / columns)));
+            }
+        }
+
+        int free = columns * rows - room.getObstacles().size();
+        if ((long) robots + controlledRobots > free) {
+            throw new IllegalArgumentException("Only " + free + " free cells for " +
+                    ((long) robots + controlledRobots) + " robots");
+        }
+
+        for (int i = 0; i < robots; i++) {
+            int cell = freeCell(room);
+            room.addRobot(new AutomatedRobot(new Position(cell % columns, cell / columns), room));
+        }
+        for (int i = 0; i < controlledRobots; i++) {
+            int cell = freeCell(room);
+            room.addControlledRobot(new ControlledRobot(new Position(cell % columns, cell / columns), room));
+        }
+
+        return room;
+    }
+
+    /**
+     * Blocks random cells of a rectangle.
+     *
+     * @param firstColumn The first column of the rectangle.
+     * @param firstRow The first row of the rectangle.
+     * @param endColumn The column after the rectangle.
+     * @param endRow The row after the rectangle.
+     * @param density The share of the cells blocked.
+     */
+    private void scatter(int firstColumn, int firstRow, int endColumn, int endRow, double density) {
+        if (density == 0) {
+            return;
+        }
+        for (int row = firstRow; row < endRow; row++) {
+            for (int column = firstColumn; column < endColumn; column++) {
+                if (random.nextDouble() < density) {
+                    block(column, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocks the outer wall of the map.
+     */
+    private void border() {
+        fill(0, 0, columns, 1);
+        fill(0, rows - 1, columns, 1);
+        fill(0, 0, 1, rows);
+        fill(columns - 1, 0, 1, rows);
+    }
+
+    /**
+     * Lays out a maze of corridors.
+     * The map is divided into rooms of CORRIDOR by CORRIDOR cells separated by walls one cell thick. The walls
+     * between the rooms are carved by a depth first search from a random room, which connects every room by exactly
+     * one path, then every other wall between two rooms is removed with the probability 1 - density.
+     * The cells right and below of the last whole room stay blocked.
+     *
+     * @param density The share of the walls between the corridors kept.
+     */
+    private void maze(double density) {
+        fill(0, 0, columns, rows);
+
+        int step = CORRIDOR + 1;
+        int mazeColumns = (columns - 1) / step;
+        int mazeRows = (rows - 1) / step;
+        if (mazeColumns == 0 || mazeRows == 0) {
+            return;
+        }
+
+        for (int row = 0; row < mazeRows; row++) {
+            for (int column = 0; column < mazeColumns; column++) {
+                clear(1 + column * step, 1 + row * step, CORRIDOR, CORRIDOR);
+            }
+        }
+
+        // the stack holds the rooms of the current path, a room is visited once it is pushed
+        int count = mazeColumns * mazeRows;
+        boolean[] visited = new boolean[count];
+        int[] stack = new int[count];
+        int size = 0;
+        int start = random.nextInt(count);
+        stack[size++] = start;
+        visited[start] = true;
+
+        int[] neighbours = new int[4];
+        while (size > 0) {
+            int room = stack[size - 1];
+            int column = room % mazeColumns;
+            int row = room / mazeColumns;
+
+            int options = 0;
+            if (column > 0 && !visited[room - 1]) {
+                neighbours[options++] = room - 1;
+            }
+            if (column < mazeColumns - 1 && !visited[room + 1]) {
+                neighbours[options++] = room + 1;
+            }
+            if (row > 0 && !visited[room - mazeColumns]) {
+                neighbours[options++] = room - mazeColumns;
+            }
+            if (row < mazeRows - 1 && !visited[room + mazeColumns]) {
+                neighbours[options++] = room + mazeColumns;
+            }
+
+            if (options == 0) {
+                size--;
+                continue;
+            }
+
+            int next = neighbours[random.nextInt(options)];
+            openWall(room, next, mazeColumns);
+            visited[next] = true;
+            stack[size++] = next;
+        }
+
+        // a perfect maze keeps every wall but the carved ones, the rest of the inner walls are opened at random
+        if (density < 1) {
+            for (int room = 0; room < count; room++) {
+                int column = room % mazeColumns;
+                int row = room / mazeColumns;
+                if (column < mazeColumns - 1 && random.nextDouble() >= density) {
+                    openWall(room, room + 1, mazeColumns);
+                }
+                if (row < mazeRows - 1 && random.nextDouble() >= density) {
+                    openWall(room, room + mazeColumns, mazeColumns);
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens the wall between two neighbouring rooms of the maze.
+     *
+     * @param room The first room.
+     * @param next The second room, to the right of or below the first room or the other way around.
+     * @param mazeColumns The number of rooms in a row of the maze.
+     */
+    private void openWall(int room, int next, int mazeColumns) {
+        int step = CORRIDOR + 1;
+        int first = Math.min(room, next);
+        int column = 1 + (first % mazeColumns) * step;
+        int row = 1 + (first / mazeColumns) * step;
+
+        if (Math.abs(next - room) == 1) {
+            clear(column + CORRIDOR, row, 1, CORRIDOR);
+        } else {
+            clear(column, row + CORRIDOR, CORRIDOR, 1);
+        }
+    }
+
+    /**
+     * Lays out the shelves of a warehouse inside of the outer wall.
+     * The shelves are pairs of rows of shelf cells back to back, with an aisle between every two pairs and
+     * a cross aisle after every SHELF_LENGTH columns.
+     *
+     * @param density The share of the shelf cells filled.
+     */
+    private void aisles(double density) {
+        border();
+
+        int step = 2 * CORRIDOR;
+        for (int row = 1 + CORRIDOR; row + CORRIDOR <= rows - 1 - CORRIDOR; row += step) {
+            for (int column = 1 + CORRIDOR; column < columns - 1 - CORRIDOR; column++) {
+                if ((column - 1 - CORRIDOR) % (SHELF_LENGTH + CORRIDOR) >= SHELF_LENGTH) {
+                    continue;
+                }
+                for (int shelf = row; shelf < row + CORRIDOR; shelf++) {
+                    if (random.nextDouble() < density) {
+                        block(column, shelf);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a random free cell holding no robot.
+     * Random cells are tried first. Once the map gets crowded, the free cells are listed once and the following
+     * cells are drawn from the list, a drawn cell is removed from it.
+     *
+     * @param room The room with the obstacles and the robots placed so far.
+     * @return The index of the cell in row order.
+     */
+    private int freeCell(Room room) {
+        if (freeCells == null) {
+            for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+                int cell = random.nextInt(columns * rows);
+                if (isFree(room, cell)) {
+                    return cell;
+                }
+            }
+
+            freeCells = new int[columns * rows - room.getObstacles().size()];
+            for (int cell = 0; cell < columns * rows; cell++) {
+                if (isFree(room, cell)) {
+                    freeCells[freeCount++] = cell;
+                }
+            }
+        }
+
+        int index = random.nextInt(freeCount);
+        int cell = freeCells[index];
+        freeCells[index] = freeCells[--freeCount];
+        return cell;
+    }
+
+    /**
+     * Checks if a cell holds neither an obstacle nor a robot.
+     *
+     * @param room The room with the robots placed so far.
+     * @param cell The index of the cell in row order.
+     * @return True if a robot can be placed into the cell.
+     */
+    private boolean isFree(Room room, int cell) {
+        return (blocked[cell >>> 6] & (1L << cell)) == 0 && !room.robotAtPosition(cell % columns, cell / columns);
+    }
+
+    /**
+     * Blocks a cell.
+     *
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     */
+    private void block(int column, int row) {
+        int cell = row * columns + column;
+        blocked[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * Blocks a rectangle of cells.
+     *
+     * @param column The first column of the rectangle.
+     * @param row The first row of the rectangle.
+     * @param width The number of columns of the rectangle.
+     * @param height The number of rows of the rectangle.
+     */
+    private void fill(int column, int row, int width, int height) {
+        for (int j = row; j < row + height; j++) {
+            for (int i = column; i < column + width; i++) {
+                block(i, j);
+            }
+        }
+    }
+
+    /**
+     * Frees a rectangle of cells.
+     *
+     * @param column The first column of the rectangle.
+     * @param row The first row of the rectangle.
+     * @param width The number of columns of the rectangle.
+     * @param height The number of rows of the rectangle.
+     */
+    private void clear(int column, int row, int width, int height) {
+        for (int j = row; j < row + height; j++) {
+            for (int i = column; i < column + width; i++) {
+                int cell = j * columns + i;
+                blocked[cell >>> 6] &= ~(1L << cell);
+            }
+        }
+    }
+
+}
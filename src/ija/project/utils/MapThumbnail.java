@@ -0,0 +1,285 @@
+/**
+ * Project name: Robot Simulation
+ * File name: MapThumbnail.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Neonila Mashlai(xmashl00)
+ * Description: A small picture of a map, cached on disk next to the map.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A small picture of a map, cached on disk next to the map.
+ * Every pixel is a shade from the floor to an obstacle by the share of obstacles in the cells it covers,
+ * or the colour of a robot. The picture keeps the aspect ratio of the map. It is built from the room of the map
+ * without JavaFX, so it can be built on any thread.
+ * The cached file starts with a header of HEADER_SIZE bytes: the magic number, the version of the format,
+ * the reserved short, the long hash of the map it was built from and the short width and height. The header
+ * is followed by the compressed shades, one byte per pixel. A cached picture whose hash differs from the hash
+ * of the map is stale.
+ */
+public class MapThumbnail {
+
+    /** Magic number at the start of every cached picture, the characters RTHB. */
+    public static final int MAGIC = 0x52544842;
+
+    /** Version of the format. */
+    public static final short VERSION = 1;
+
+    /** Size of the header of a cached picture in bytes. */
+    public static final int HEADER_SIZE = 20;
+
+    /** Extension of the cached picture of a map. */
+    public static final String EXTENSION = ".thumb";
+
+    /** Shade of a pixel without obstacles. */
+    public static final int FLOOR = 0;
+
+    /** Shade of a pixel covered by obstacles only. */
+    public static final int WALL = 250;
+
+    /** Shade of a pixel holding an automated robot. */
+    public static final int ROBOT = 254;
+
+    /** Shade of a pixel holding a controlled robot. */
+    public static final int CONTROLLED_ROBOT = 255;
+
+    /** Width of the picture in pixels. */
+    private final int width;
+
+    /** Height of the picture in pixels. */
+    private final int height;
+
+    /** Shade of every pixel in row order. */
+    private final byte[] shades;
+
+    /**
+     * Creates a picture from its shades.
+     *
+     * @param width The width of the picture in pixels.
+     * @param height The height of the picture in pixels.
+     * @param shades The shade of every pixel in row order.
+     */
+    private MapThumbnail(int width, int height, byte[] shades) {
+        this.width = width;
+        this.height = height;
+        this.shades = shades;
+    }
+
+    /**
+     * Returns the picture of a map, the cached picture if it was built from the same content of the map,
+     * otherwise the map is loaded, drawn and the picture cached. A map is loaded only when it changed.
+     *
+     * @param map The name of the map.
+     * @param hash The hash of the content of the map, see MapFile.Info.
+     * @param maxWidth The largest width of the picture in pixels.
+     * @param maxHeight The largest height of the picture in pixels.
+     * @return The picture.
+     */
+    public static MapThumbnail of(String map, long hash, int maxWidth, int maxHeight) {
+        File file = Loader.thumbnailFile(map);
+        MapThumbnail thumbnail = read(file, hash);
+        if (thumbnail != null && thumbnail.width <= maxWidth && thumbnail.height <= maxHeight) {
+            return thumbnail;
+        }
+
+        Loader loader = new Loader();
+        loader.load(map);
+        thumbnail = render(loader.getRoom(), maxWidth, maxHeight);
+        try {
+            thumbnail.write(file, hash);
+        } catch (IOException e) {
+            // the picture is only a cache, it is drawn again next time
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Draws the picture of a room, the room is scaled to fit into the specified size.
+     * Every pixel visits the cells it covers once, so a large map costs one look at every cell.
+     *
+     * @param room The room in map cells as an instance of the Room class.
+     * @param maxWidth The largest width of the picture in pixels.
+     * @param maxHeight The largest height of the picture in pixels.
+     * @return The picture.
+     */
+    public static MapThumbnail render(Room room, int maxWidth, int maxHeight) {
+        int columns = room.getColumns();
+        int rows = room.getRows();
+        double scale = Math.min((double) maxWidth / columns, (double) maxHeight / rows);
+        int width = Math.max(1, (int) Math.round(columns * scale));
+        int height = Math.max(1, (int) Math.round(rows * scale));
+
+        ObstacleField field = room.getObstacleField();
+        byte[] shades = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            int firstRow = (int) ((long) y * rows / height);
+            int endRow = Math.max(firstRow + 1, (int) ((long) (y + 1) * rows / height));
+            for (int x = 0; x < width; x++) {
+                int firstColumn = (int) ((long) x * columns / width);
+                int endColumn = Math.max(firstColumn + 1, (int) ((long) (x + 1) * columns / width));
+
+                int blocked = 0;
+                for (int row = firstRow; row < endRow; row++) {
+                    for (int column = firstColumn; column < endColumn; column++) {
+                        if (field.isBlocked(column, row)) {
+                            blocked++;
+                        }
+                    }
+                }
+                shades[y * width + x] = (byte) (WALL * blocked / ((endRow - firstRow) * (endColumn - firstColumn)));
+            }
+        }
+
+        for (AutomatedRobot robot : room.getRobots()) {
+            mark(shades, width, height, columns, rows, robot.getPosition(), ROBOT);
+        }
+        for (ControlledRobot robot : room.getControlledRobots()) {
+            mark(shades, width, height, columns, rows, robot.getPosition(), CONTROLLED_ROBOT);
+        }
+
+        return new MapThumbnail(width, height, shades);
+    }
+
+    /**
+     * Reads a cached picture.
+     *
+     * @param file The cached picture.
+     * @param hash The hash of the map the picture has to be built from.
+     * @return The picture, null if it is missing, damaged or built from another content of the map.
+     */
+    public static MapThumbnail read(File file, long hash) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                return null;
+            }
+            buffer.getShort();
+            if (buffer.getLong() != hash) {
+                return null;
+            }
+            int width = buffer.getShort();
+            int height = buffer.getShort();
+            if (width <= 0 || height <= 0) {
+                return null;
+            }
+
+            byte[] shades = new byte[width * height];
+            inflater.setInput(buffer);
+            int length = 0;
+            while (length < shades.length && !inflater.finished() && !inflater.needsInput()) {
+                length += inflater.inflate(shades, length, shades.length - length);
+            }
+            return length == shades.length ? new MapThumbnail(width, height, shades) : null;
+        } catch (IOException | DataFormatException e) {
+            // a damaged picture is drawn again
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Writes the picture, the file is replaced at once so a reader never sees half of it.
+     *
+     * @param file The cached picture to write, an existing file is replaced.
+     * @param hash The hash of the map the picture was built from.
+     * @throws IOException If the picture cannot be written.
+     */
+    public void write(File file, long hash) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + shades.length + 64);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        buffer.putLong(hash);
+        buffer.putShort((short) width);
+        buffer.putShort((short) height);
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(shades);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (!buffer.hasRemaining()) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+                deflater.deflate(buffer);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        File temporary = new File(file.getPath() + ".tmp");
+        Files.write(temporary.toPath(), Arrays.copyOf(buffer.array(), buffer.position()));
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the width of the picture.
+     *
+     * @return The width in pixels.
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * Returns the height of the picture.
+     *
+     * @return The height in pixels.
+     */
+    public int getHeight() { return height; }
+
+    /**
+     * Returns the shade of a pixel.
+     *
+     * @param x The column of the pixel.
+     * @param y The row of the pixel.
+     * @return The shade, from FLOOR to WALL, or ROBOT or CONTROLLED_ROBOT.
+     */
+    public int getShade(int x, int y) { return shades[y * width + x] & 0xFF; }
+
+    /**
+     * Marks the pixels covered by the cell of a robot, at least one pixel.
+     *
+     * @param shades The shades of the picture.
+     * @param width The width of the picture.
+     * @param height The height of the picture.
+     * @param columns The number of columns of the room.
+     * @param rows The number of rows of the room.
+     * @param position The position of the robot in map cells.
+     * @param shade The shade of the robot.
+     */
+    private static void mark(byte[] shades, int width, int height, int columns, int rows, Position position,
+                             int shade) {
+        int column = (int) position.getX();
+        int row = (int) position.getY();
+        int firstX = (int) ((long) column * width / columns);
+        int endX = Math.max(firstX + 1, (int) ((long) (column + 1) * width / columns));
+        int firstY = (int) ((long) row * height / rows);
+        int endY = Math.max(firstY + 1, (int) ((long) (row + 1) * height / rows));
+        for (int y = firstY; y < Math.min(endY, height); y++) {
+            for (int x = firstX; x < Math.min(endX, width); x++) {
+                shades[y * width + x] = (byte) shade;
+            }
+        }
+    }
+
+}
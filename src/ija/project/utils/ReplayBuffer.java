@@ -0,0 +1,194 @@
+/**
+ * Project name: Robot Simulation
+ * File name: ReplayBuffer.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Keeps the most recent frames in memory for instant rewinding.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.Room;
+
+/**
+ * Keeps the most recent frames in memory for instant rewinding.
+ * The frames are stored in a ring of primitive arrays, every frame takes the same number of elements, enough
+ * for the robots of the room. The arrays are allocated for the first recorded frame and reused afterwards,
+ * so recording and reading frames creates no objects. They are only allocated again if a frame holds more robots
+ * than fit, which empties the ring. The number of frames is limited by a number of frames and of bytes.
+ * The ring holds frames with consecutive ids, the newest frames replace the oldest ones.
+ */
+public class ReplayBuffer {
+
+    /** Number of bytes one robot takes in one frame. */
+    private static final int ROBOT_BYTES = 2 * Double.BYTES + Integer.BYTES;
+
+    /** The largest number of frames. */
+    private final int frames;
+
+    /** The largest number of bytes of all frames. */
+    private final long bytes;
+
+    /** Number of frames the ring holds. */
+    private int capacity = 0;
+
+    /** Number of elements of one frame, the largest number of robots of a frame. */
+    private int stride = 0;
+
+    /** X coordinates of the robots of all frames. */
+    private double[] x;
+
+    /** Y coordinates of the robots of all frames. */
+    private double[] y;
+
+    /** Angles of the robots of all frames. */
+    private int[] angle;
+
+    /** Number of automated robots of every frame. */
+    private int[] robots;
+
+    /** Number of controlled robots of every frame. */
+    private int[] controlledRobots;
+
+    /** The id of the oldest frame. */
+    private int first = 0;
+
+    /** Number of frames in the ring. */
+    private int size = 0;
+
+    /**
+     * Creates an empty ring, the arrays are allocated for the first recorded frame.
+     *
+     * @param frames The largest number of frames.
+     * @param bytes The largest number of bytes of all frames.
+     */
+    public ReplayBuffer(int frames, long bytes) {
+        if (frames < 1 || bytes < 1) {
+            throw new IllegalArgumentException("Replay buffer limits must be positive");
+        }
+        this.frames = frames;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Records the state of the room as the frame with the specified id.
+     * A frame with the id of the newest frame replaces it, a frame not following the newest frame empties the ring.
+     *
+     * @param id The id of the frame.
+     * @param room The room as an instance of the Room class.
+     */
+    public void record(int id, Room room) {
+        int automated = room.getRobots().size();
+        int count = automated + room.getControlledRobots().size();
+        if (count > stride || capacity == 0) {
+            allocate(count);
+        }
+
+        if (size > 0 && id == first + size - 1) {
+            size--;
+        } else if (size > 0 && id != first + size) {
+            size = 0;
+        }
+        if (size == 0) {
+            first = id;
+        } else if (size == capacity) {
+            first++;
+            size--;
+        }
+
+        int slot = slot(first + size);
+        room.copyRobots(x, y, angle, slot * stride);
+        robots[slot] = automated;
+        controlledRobots[slot] = count - automated;
+        size++;
+    }
+
+    /**
+     * Checks if a frame is in the ring.
+     *
+     * @param id The id of the frame.
+     * @return True if the frame can be read from the ring.
+     */
+    public boolean contains(int id) { return size > 0 && id >= first && id < first + size; }
+
+    /**
+     * Copies a frame of the ring into a frame object.
+     *
+     * @param id The id of the frame, it has to be in the ring.
+     * @param target The frame object to fill.
+     */
+    public void read(int id, LogFrame target) {
+        if (!contains(id)) {
+            throw new IndexOutOfBoundsException("Frame " + id + " not in the replay buffer");
+        }
+
+        int slot = slot(id);
+        int offset = slot * stride;
+        target.clear(id);
+        for (int i = 0; i < robots[slot]; i++) {
+            target.addRobot(x[offset + i], y[offset + i], angle[offset + i]);
+        }
+        for (int i = robots[slot]; i < robots[slot] + controlledRobots[slot]; i++) {
+            target.addControlledRobot(x[offset + i], y[offset + i], angle[offset + i]);
+        }
+    }
+
+    /**
+     * Removes the frames with the specified id and higher ids.
+     *
+     * @param id The id of the first frame to remove.
+     */
+    public void truncate(int id) { size = Math.max(0, Math.min(size, id - first)); }
+
+    /**
+     * Removes all frames.
+     */
+    public void clear() { size = 0; }
+
+    /**
+     * Returns the id of the oldest frame.
+     *
+     * @return The id of the oldest frame, meaningless if the ring is empty.
+     */
+    public int getFirstId() { return first; }
+
+    /**
+     * Returns the number of frames in the ring.
+     *
+     * @return The number of frames.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns the number of frames the ring holds.
+     *
+     * @return The capacity in frames, 0 before the first frame is recorded.
+     */
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Returns the slot of the ring holding the frame with the specified id.
+     *
+     * @param id The id of the frame.
+     * @return The slot of the frame.
+     */
+    private int slot(int id) { return Math.floorMod(id, capacity); }
+
+    /**
+     * Allocates the arrays for frames of the specified number of robots and empties the ring.
+     *
+     * @param count The number of robots of a frame.
+     */
+    private void allocate(int count) {
+        stride = Math.max(count, 1);
+        capacity = (int) Math.max(1, Math.min(frames, bytes / ((long) stride * ROBOT_BYTES)));
+        x = new double[capacity * stride];
+        y = new double[capacity * stride];
+        angle = new int[capacity * stride];
+        robots = new int[capacity];
+        controlledRobots = new int[capacity];
+        size = 0;
+    }
+
+}
@@ -0,0 +1,408 @@
+/**
+ * Project name: Robot Simulation
+ * File name: ReplayReader.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Reads frames of a binary log through a keyframe offset index.
+ */
+
+package ija.project.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reads frames of a binary log through a keyframe offset index.
+ * Every frame whose index is a multiple of the keyframe interval is a keyframe. The index is a sidecar file next
+ * to the log: a header of INDEX_HEADER_SIZE bytes with the keyframe interval, followed by the long offset and the
+ * int id of every such keyframe, so the keyframe a frame is decoded from is found in constant time and the keyframe
+ * of a tick by a binary search. Only the indexes and a window of the frames being read are held in memory, so a log
+ * of any size can be replayed with little memory, and no file stays mapped, so the log can be truncated or
+ * archived as soon as the reader is closed.
+ * A missing or stale index is rebuilt by scanning the log once.
+ * The log may be split into segments, plain or compressed, which are read as one log, see LogSegment.
+ * While the reader is open, the LogArchiver neither compresses nor deletes the log.
+ * Frames are decoded from their keyframe, or from the last read frame when reading forward.
+ * <p>
+ * The ids of the frames are the ticks they were taken at. A log which does not hold every tick is replayed
+ * by ticks, a tick between two frames is interpolated from both, see LogFrame.interpolate.
+ */
+public class ReplayReader implements Closeable {
+
+    /** Magic number at the start of every index, the characters RIDX. */
+    public static final int INDEX_MAGIC = 0x52494458;
+
+    /** Size of the header of the index in bytes. */
+    public static final int INDEX_HEADER_SIZE = 8;
+
+    /** Size of the entry of one keyframe in the index in bytes. */
+    public static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+    /** The binary log, which is its first segment. */
+    private final File log;
+
+    /** Segments of the log in their order. */
+    private final LogSegment[] segments;
+
+    /** Whether the reader is still registered with the LogArchiver. */
+    private boolean open = true;
+
+    /** Number of frames from one keyframe to the next one. */
+    private final int keyframeInterval;
+
+    /** Number of frames in the log. */
+    private final int frameCount;
+
+    /** Codec decoding the frames. */
+    private final FrameCodec decoder;
+
+    /** Index of the frame last decoded by the decoder, -1 if none. */
+    private int decodedFrame = -1;
+
+    /** Segment of the last decoded frame. */
+    private int decodedSegment;
+
+    /** Offset of the last decoded frame in its segment. */
+    private long decodedStart;
+
+    /** Offset of the frame after the last decoded frame in its segment. */
+    private long decodedEnd;
+
+    /** Number of ticks the log covers, -1 until it is first asked for. */
+    private int tickCount = -1;
+
+    /** The frame at or before the last read tick. */
+    private LogFrame before = new LogFrame();
+
+    /** The frame after the last read tick. */
+    private LogFrame after = new LogFrame();
+
+    /** Index of the frame held in before, -1 if none. */
+    private int beforeFrame = -1;
+
+    /** Index of the frame held in after, -1 if none. */
+    private int afterFrame = -1;
+
+    /**
+     * Opens a log for reading, the index of a segment is rebuilt if it is missing or does not match the segment.
+     *
+     * @param log The binary log, which is its first segment.
+     * @throws IOException If the log cannot be read or is not a binary log.
+     */
+    public ReplayReader(File log) throws IOException {
+        this.log = log;
+        // the log is registered before its segments are listed, so the archiver does not change them in between
+        LogArchiver.acquire(log);
+        List<File> files = LogSegment.list(log);
+        if (files.isEmpty()) {
+            LogArchiver.release(log);
+            throw new FileNotFoundException(log.getPath());
+        }
+
+        this.segments = new LogSegment[files.size()];
+        int frames = 0;
+        try {
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = new LogSegment(files.get(i), frames, i == segments.length - 1);
+                if (segments[i].getKeyframeInterval() != segments[0].getKeyframeInterval() ||
+                        frames % segments[0].getKeyframeInterval() != 0) {
+                    throw new IOException("Segment " + i + " does not start with an aligned keyframe");
+                }
+                frames += segments[i].getFrameCount();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+
+        this.keyframeInterval = segments[0].getKeyframeInterval();
+        this.frameCount = frames;
+        this.decoder = new FrameCodec(keyframeInterval);
+    }
+
+    /**
+     * Returns the index file of a log segment.
+     *
+     * @param log The binary log or one of its segments.
+     * @return The sidecar file holding the offsets of the keyframes.
+     */
+    public static File indexFile(File log) { return new File(log.getPath() + ".idx"); }
+
+    /**
+     * Writes the header of an index.
+     *
+     * @param buffer The buffer to write to.
+     * @param keyframeInterval The number of frames from one keyframe to the next one.
+     */
+    public static void writeIndexHeader(ByteBuffer buffer, int keyframeInterval) {
+        buffer.putInt(INDEX_MAGIC);
+        buffer.putShort(FrameCodec.VERSION);
+        buffer.putShort((short) keyframeInterval);
+    }
+
+    /**
+     * Writes the entry of a keyframe to an index.
+     *
+     * @param buffer The buffer to write to.
+     * @param offset The offset of the keyframe in its segment.
+     * @param id The id of the keyframe.
+     */
+    public static void writeIndexEntry(ByteBuffer buffer, long offset, int id) {
+        buffer.putLong(offset);
+        buffer.putInt(id);
+    }
+
+    /**
+     * Returns the number of frames in the log.
+     *
+     * @return The number of frames.
+     */
+    public int getFrameCount() { return frameCount; }
+
+    /**
+     * Returns the number of ticks the log covers, which is the id of its last frame plus one.
+     *
+     * @return The number of ticks.
+     * @throws IOException If the log cannot be read.
+     */
+    public int getTickCount() throws IOException {
+        if (tickCount < 0) {
+            tickCount = frameCount == 0 ? 0 : getId(frameCount - 1) + 1;
+        }
+        return tickCount;
+    }
+
+    /**
+     * Returns the number of segments of the log.
+     *
+     * @return The number of segments.
+     */
+    public int getSegmentCount() { return segments.length; }
+
+    /**
+     * Returns the segment holding a frame.
+     *
+     * @param frame The index of the frame.
+     * @return The number of the segment.
+     */
+    public int getSegment(int frame) {
+        checkFrame(frame);
+
+        int low = 0;
+        int high = segments.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments[middle].getFirstFrame() <= frame) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the offset of a frame in its segment.
+     * The offsets of the last read frame and of the frame after it are known without reading the log,
+     * the offset of any other frame is found by skipping the frames after its keyframe.
+     *
+     * @param frame The index of the frame.
+     * @return The offset of the frame in bytes.
+     * @throws IOException If the log cannot be read.
+     */
+    public long getOffset(int frame) throws IOException {
+        int segment = getSegment(frame);
+        if (decodedFrame >= 0 && segment == decodedSegment && frame == decodedFrame) {
+            return decodedStart;
+        }
+        if (decodedFrame >= 0 && segment == decodedSegment && frame == decodedFrame + 1) {
+            return decodedEnd;
+        }
+
+        LogSegment source = segments[segment];
+        int local = frame - source.getFirstFrame();
+        long offset = source.getKeyframeOffset(local / keyframeInterval);
+        for (int i = local % keyframeInterval; i > 0; i--) {
+            offset += source.frameSize(offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the id of a frame without decoding it.
+     *
+     * @param frame The index of the frame.
+     * @return The id of the frame.
+     * @throws IOException If the log cannot be read.
+     */
+    public int getId(int frame) throws IOException {
+        return segments[getSegment(frame)].idAt(getOffset(frame));
+    }
+
+    /**
+     * Finds the last frame taken at or before a tick. The segment and the keyframe are found by binary searches
+     * over the ids in the indexes, only the headers of the frames after the keyframe are read.
+     *
+     * @param id The tick.
+     * @return The index of the frame, -1 if the log starts after the tick.
+     * @throws IOException If the log cannot be read.
+     */
+    public int find(int id) throws IOException {
+        int low = -1;
+        int high = segments.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments[middle].getKeyframeCount() > 0 && segments[middle].getKeyframeId(0) <= id) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (low < 0) {
+            return -1;
+        }
+
+        LogSegment source = segments[low];
+        int keyframe = 0;
+        high = source.getKeyframeCount() - 1;
+        while (keyframe < high) {
+            int middle = (keyframe + high + 1) >>> 1;
+            if (source.getKeyframeId(middle) <= id) {
+                keyframe = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        int local = keyframe * keyframeInterval;
+        long offset = source.getKeyframeOffset(keyframe);
+        int end = Math.min(local + keyframeInterval, source.getFrameCount());
+        while (local + 1 < end) {
+            long next = offset + source.frameSize(offset);
+            if (source.idAt(next) > id) {
+                break;
+            }
+            offset = next;
+            local++;
+        }
+        return source.getFirstFrame() + local;
+    }
+
+    /**
+     * Fills a frame with the state at a tick, a tick between two frames of the log is interpolated.
+     * A tick before the first frame gets the first frame, a tick after the last frame gets the last frame.
+     * The frames around the last read tick are kept, so reading the ticks in their order decodes every frame once.
+     *
+     * @param id The tick.
+     * @param target The frame object to fill, its id is set to the tick.
+     * @throws IOException If the frames cannot be decoded.
+     */
+    public void readTick(int id, LogFrame target) throws IOException {
+        if (beforeFrame < 0 || afterFrame != beforeFrame + 1 || id < before.getId() || id >= after.getId()) {
+            int frame = Math.max(find(id), 0);
+            if (frame == afterFrame) {
+                LogFrame swap = before;
+                before = after;
+                after = swap;
+                beforeFrame = frame;
+                afterFrame = -1;
+            } else if (frame != beforeFrame) {
+                beforeFrame = -1;
+                afterFrame = -1;
+                read(frame, before);
+                beforeFrame = frame;
+            }
+
+            if (frame + 1 < frameCount && afterFrame != frame + 1) {
+                afterFrame = -1;
+                read(frame + 1, after);
+                afterFrame = frame + 1;
+            }
+        }
+
+        // a frame interpolated with itself is the frame at the tick
+        target.interpolate(before, afterFrame < 0 || id <= before.getId() ? before : after, id);
+    }
+
+    /**
+     * Decodes a frame of the log.
+     *
+     * @param frame The index of the frame.
+     * @param target The frame object to fill.
+     * @throws IOException If the frame cannot be decoded.
+     */
+    public void read(int frame, LogFrame target) throws IOException {
+        int segment = getSegment(frame);
+        LogSegment source = segments[segment];
+
+        int keyframe = frame - frame % keyframeInterval;
+        if (decodedFrame < keyframe || decodedFrame >= frame || segment != decodedSegment) {
+            if (segment != decodedSegment) {
+                // only the frames of one compressed segment are kept in memory
+                segments[decodedSegment].release();
+            }
+            decodedFrame = keyframe - 1;
+            decodedSegment = segment;
+            decodedEnd = source.getKeyframeOffset((keyframe - source.getFirstFrame()) / keyframeInterval);
+        }
+
+        while (decodedFrame < frame) {
+            try {
+                ByteBuffer buffer = source.frameAt(decodedEnd);
+                int start = buffer.position();
+                decoder.decode(buffer, target);
+                decodedStart = decodedEnd;
+                decodedEnd += buffer.position() - start;
+                decodedFrame++;
+            } catch (IOException e) {
+                decodedFrame = -1;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Closes the segments of the log and releases the log to the LogArchiver.
+     *
+     * @throws IOException If a segment cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (LogSegment segment : segments) {
+            if (segment == null) {
+                continue;
+            }
+            try {
+                segment.close();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        // the log is released once none of its files is open
+        if (open) {
+            open = false;
+            LogArchiver.release(log);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Checks that a frame is in the log.
+     *
+     * @param frame The index of the frame.
+     */
+    private void checkFrame(int frame) {
+        if (frame < 0 || frame >= frameCount) {
+            throw new IndexOutOfBoundsException("Frame " + frame + " out of " + frameCount);
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+/**
+ * Project name: Robot Simulation
+ * File name: ReplaySource.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Interface representing logged frames which can be shown in a room.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.Room;
+
+/**
+ * Interface representing logged frames which can be shown in a room.
+ */
+public interface ReplaySource {
+
+    /**
+     * Returns the number of logged frames.
+     *
+     * @return The number of frames.
+     */
+    int getFrameCount();
+
+    /**
+     * Shows a logged frame in the room.
+     *
+     * @param room The room to show the frame in as an instance of the Room class.
+     * @param id The id of the frame.
+     */
+    void show(Room room, int id);
+
+}
@@ -0,0 +1,190 @@
+/**
+ * Project name: Robot Simulation
+ * File name: ReplayTimeline.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Plays the logged frames forward or backward at a chosen speed.
+ */
+
+package ija.project.utils;
+
+import ija.project.game.Room;
+
+/**
+ * Plays the logged frames forward or backward at a chosen speed.
+ * The timeline keeps the position of the replay, jumps to any frame and steps one frame at a time. Playing moves
+ * the position by the time passed since the last display frame, and only the frame at the new position is shown,
+ * so a display frame costs one frame lookup whatever the speed. A frame is looked up through its keyframe.
+ */
+public class ReplayTimeline {
+
+    /** Playback speeds, multiples of the speed at which the frames were logged. */
+    public static final double[] SPEEDS = {0.25, 0.5, 1, 2, 4, 8, 16, 32, 64};
+
+    /** Longest time between two display frames taken into account, longer pauses do not move the position. */
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
+
+    /** The logged frames. */
+    private final ReplaySource source;
+
+    /** The room showing the frames. */
+    private final Room room;
+
+    /** Length of one logged frame in nanoseconds at the speed 1. */
+    private final long tickNanos;
+
+    /** Index of the current speed in SPEEDS. */
+    private int speed = 2;
+
+    /** Direction of the playback, 1 forward, -1 backward, 0 paused. */
+    private int direction = 0;
+
+    /** Position of the playback in frames, between two frames while playing slowly. */
+    private double position;
+
+    /** The frame to show. */
+    private int target;
+
+    /** The frame shown in the room. */
+    private int shown;
+
+    /** Time of the last display frame in nanoseconds, 0 if the playback just started. */
+    private long lastTime = 0;
+
+    /**
+     * Creates a paused timeline at the last frame, which the room is expected to show.
+     *
+     * @param source The logged frames, the logger of the running simulation or a finished log.
+     * @param room The room showing the frames as an instance of the Room class.
+     * @param tickNanos The length of one logged frame in nanoseconds at the speed 1.
+     */
+    public ReplayTimeline(ReplaySource source, Room room, long tickNanos) {
+        this.source = source;
+        this.room = room;
+        this.tickNanos = tickNanos;
+        this.target = Math.max(0, source.getFrameCount() - 1);
+        this.shown = target;
+        this.position = target;
+    }
+
+    /**
+     * Moves the position to a frame, it is shown in the next display frame.
+     *
+     * @param frame The index of the frame, clamped to the logged frames.
+     */
+    public void seek(int frame) {
+        target = Math.max(0, Math.min(frame, getFrameCount() - 1));
+        position = target;
+    }
+
+    /**
+     * Pauses the playback and moves one frame.
+     *
+     * @param direction 1 for the next frame, -1 for the previous frame.
+     */
+    public void step(int direction) {
+        pause();
+        seek(target + direction);
+    }
+
+    /**
+     * Starts the playback.
+     *
+     * @param direction 1 to play forward, -1 to play backward.
+     */
+    public void play(int direction) {
+        this.direction = direction;
+        this.lastTime = 0;
+    }
+
+    /**
+     * Pauses the playback.
+     */
+    public void pause() { direction = 0; }
+
+    /**
+     * Pauses a running playback or starts playing forward.
+     */
+    public void togglePlay() {
+        if (direction == 0) {
+            play(1);
+        } else {
+            pause();
+        }
+    }
+
+    /**
+     * Switches to the next higher speed, if any.
+     */
+    public void faster() { speed = Math.min(speed + 1, SPEEDS.length - 1); }
+
+    /**
+     * Switches to the next lower speed, if any.
+     */
+    public void slower() { speed = Math.max(speed - 1, 0); }
+
+    /**
+     * Moves a running playback by the time passed since the last display frame and shows the frame
+     * at the position if it changed. The playback stops at the first and at the last frame.
+     *
+     * @param now The time of the display frame in nanoseconds, e.g. the time passed to an animation timer.
+     */
+    public void advance(long now) {
+        int frames = getFrameCount();
+        if (frames == 0) {
+            return;
+        }
+
+        if (direction != 0) {
+            if (lastTime != 0) {
+                long elapsed = Math.min(now - lastTime, MAX_FRAME_NANOS);
+                position += direction * SPEEDS[speed] * elapsed / tickNanos;
+            }
+            lastTime = now;
+
+            if ((direction < 0 && position <= 0) || (direction > 0 && position >= frames - 1)) {
+                position = Math.max(0, Math.min(position, frames - 1));
+                pause();
+            }
+            target = (int) position;
+        }
+
+        if (target != shown) {
+            source.show(room, target);
+            shown = target;
+        }
+    }
+
+    /**
+     * Returns the frame to show, shown by the next display frame at the latest.
+     *
+     * @return The index of the frame.
+     */
+    public int getFrame() { return target; }
+
+    /**
+     * Returns the number of logged frames.
+     *
+     * @return The number of frames.
+     */
+    public int getFrameCount() { return source.getFrameCount(); }
+
+    /**
+     * Returns the direction of the playback.
+     *
+     * @return 1 when playing forward, -1 when playing backward, 0 when paused.
+     */
+    public int getDirection() { return direction; }
+
+    /**
+     * Returns the speed as a text shown to the user.
+     *
+     * @return The speed followed by x.
+     */
+    public String getSpeedLabel() {
+        double value = SPEEDS[speed];
+        return (value == Math.rint(value) ? String.valueOf((int) value) : String.valueOf(value)) + "x";
+    }
+
+}
@@ -20,24 +20,38 @@ import javafx.stage.Stage;
 import javafx.geometry.Pos;
 import javafx.animation.AnimationTimer;
 import javafx.scene.control.Button;
+import javafx.scene.control.Slider;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * Represents the simulation view.
  */
 public class GameView {
 
     /**
-    Last tick of the simulation.
+    Clock deciding how many ticks run in a frame.
+     */
+    private final SimulationClock clock = new SimulationClock(120);
+
+    /**
+    Performs one tick of the simulation.
      */
-    private long lastTick = 0;
+    private final Runnable simulationStep = this::simulationStep;
 
     /**
     Room of the simulation.
      */
     private Room room;
 
+    /**
+    Engine advancing the simulation.
+     */
+    private SimulationEngine engine;
+
     /**
     Primary stage of the simulation.
      */
@@ -106,16 +120,54 @@ public class GameView {
     private STATES state = STATES.FIRST_RUN;
 
     /**
-    Direction of the replay.
+    Position and playback of the replay, null unless a replay is running.
+     */
+    private ReplayTimeline timeline;
+
+    /**
+    Finished log being replayed, null when the running simulation is replayed.
+     */
+    private LogReplay savedRun;
+
+    /**
+    Slider showing the position of the replay.
+     */
+    private Slider timelineSlider;
+
+    /**
+    Whether the slider is moved by the timeline and not by the user.
      */
-    private boolean replay_up = false;
+    private boolean updatingSlider = false;
 
     /**
      * Runs the simulation.
      *
      * @param map The map to be run as a string.
      */
-    public void runGame(String map) {
+    public void runGame(String map) { build(map); }
+
+    /**
+     * Opens a finished log in the replay, the log is shown in its map, or in an empty room if the map
+     * no longer exists. Leaving the replay returns to the list of logged runs.
+     *
+     * @param map The map the log was recorded on as a string.
+     * @param log The binary log to replay.
+     */
+    public void replayLog(String map, File log) {
+        try {
+            this.savedRun = new LogReplay(log);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading from log file", e);
+        }
+        build(Loader.exists(map) ? map : "new");
+    }
+
+    /**
+     * Builds the simulation view, a finished log is opened in the replay at once.
+     *
+     * @param map The map to be run as a string.
+     */
+    private void build(String map) {
         this.primaryStage = new Stage();
 
         primaryStage.getIcons().add(new Image("file:lib/robot.jpg"));
@@ -177,27 +229,50 @@ public class GameView {
         Loader loader = new Loader();
         loader.load(map);
         this.room = new Converter().convertCoords(loader.getRoom());
+        this.engine = new SimulationEngine(room);
 
         scene.setOnKeyPressed(event -> {
 
             switch (event.getCode()) {
                 case LEFT:
-                    if (state == STATES.REPLAY) { timer.start(); }
+                    if (state == STATES.REPLAY) { timeline.step(-1); }
                     isTurn = -1;
                     break;
 
                 case RIGHT:
-                    if (state == STATES.REPLAY) {
-                        replay_up = true;
-                        timer.start();
-                    }
+                    if (state == STATES.REPLAY) { timeline.step(1); }
                     isTurn = 1;
                     break;
 
                 case UP:
+                    if (state == STATES.REPLAY) { timeline.faster(); }
                     isMoving = true;
                     break;
 
+                case DOWN:
+                    if (state == STATES.REPLAY) { timeline.slower(); }
+                    break;
+
+                case J:
+                    if (state == STATES.REPLAY) { timeline.play(-1); }
+                    break;
+
+                case K:
+                    if (state == STATES.REPLAY) { timeline.pause(); }
+                    break;
+
+                case L:
+                    if (state == STATES.REPLAY) { timeline.play(1); }
+                    break;
+
+                case HOME:
+                    if (state == STATES.REPLAY) { timeline.seek(0); }
+                    break;
+
+                case END:
+                    if (state == STATES.REPLAY) { timeline.seek(timeline.getFrameCount() - 1); }
+                    break;
+
                 case ESCAPE:
                     if (state == STATES.REPLAY) {
                         endReplay(buttons, backButton, replayButton, stopButton, startButton, restartButton);
@@ -205,7 +280,9 @@ public class GameView {
                     break;
 
                 case SPACE:
-                    if (state == STATES.RUNNING) {
+                    if (state == STATES.REPLAY) {
+                        timeline.togglePlay();
+                    } else if (state == STATES.RUNNING) {
                         simulationStop();
                     } else { simulationStart(map); }
                     break;
@@ -213,6 +290,11 @@ public class GameView {
                 case R:
                     startReplay(buttons, backButton, replayButton, stopButton, startButton, restartButton);
                     break;
+
+                case F:
+                    clock.nextSpeed();
+                    updateTitle();
+                    break;
             }
 
         });
@@ -221,7 +303,6 @@ public class GameView {
             switch (event.getCode()) {
                 case LEFT:
                 case RIGHT:
-                    if (state == STATES.REPLAY) { timer.stop(); }
                     isTurn = 0;
                     break;
                 case UP:
@@ -235,12 +316,7 @@ public class GameView {
         this.timer = new AnimationTimer() {
             @Override
             public void handle(long now) {
-                if (lastTick == 0L || now - lastTick > (1_000_000_000L / 120)) {
-                    lastTick = now;
-
-                    tickAction();
-
-                }
+                tickAction(now);
             }
         };
 
@@ -260,16 +336,28 @@ public class GameView {
         restartButton.setFocusTraversable(false);
         backButton.setFocusTraversable(false);
         replayButton.setFocusTraversable(false);
+
+        if (savedRun != null) {
+            startReplay(buttons, backButton, replayButton, stopButton, startButton, restartButton);
+        }
     }
 
     /**
-     * Draws the elements of the simulation.
+     * Draws the elements of the simulation, rooms larger than the canvas are scaled down to fit.
      */
     private void drawElements() {
 
-        for (Obstacle obstacle : room.getObstacles()) {
-            gc.setFill(Color.BLACK);
-            gc.fillRect(obstacle.getPosition().getX(), obstacle.getPosition().getY(), 30, 30);
+        double scale = Math.min(1, Math.min(1140 / room.getWidth(), 660 / room.getHeight()));
+        gc.save();
+        gc.scale(scale, scale);
+
+        // the obstacles are drawn as merged walls, one rectangle for every wall
+        ObstacleField field = room.getObstacleField();
+        double cellSize = room.getCellSize();
+        gc.setFill(Color.BLACK);
+        for (int i = 0; i < field.getWallCount(); i++) {
+            gc.fillRect(field.getWallColumn(i) * cellSize, field.getWallRow(i) * cellSize,
+                    field.getWallWidth(i) * cellSize, field.getWallHeight(i) * cellSize);
         }
 
         for (AutomatedRobot robot : room.getRobots()) {
@@ -294,6 +382,8 @@ public class GameView {
 
         }
 
+        gc.restore();
+
     }
 
     /**
@@ -309,19 +399,39 @@ public class GameView {
     private void startReplay(HBox buttons, Button backButton, Button replayButton,
                              Button stopButton, Button startButton, Button restartButton) {
 
-        if (state == STATES.FIRST_RUN) {
+        if (state == STATES.FIRST_RUN && savedRun == null) {
             return;
         }
 
         state = STATES.REPLAY;
-        primaryStage.setTitle("Simulation - Replay");
         canvas_container.setStyle("-fx-background-color: #0029ff;");
         timer.stop();
+        if (savedRun != null) {
+            // the room shows the map, not the last frame of the log
+            timeline = new ReplayTimeline(savedRun, room, clock.getTickNanos());
+            timeline.seek(0);
+        } else {
+            timeline = new ReplayTimeline(logger, room, clock.getTickNanos());
+        }
+
         Button back = new Button("Back");
         back.setOnAction(e1 -> endReplay(buttons, backButton, replayButton, stopButton, startButton, restartButton));
+
+        timelineSlider = new Slider(0, Math.max(0, timeline.getFrameCount() - 1), timeline.getFrame());
+        timelineSlider.setPrefWidth(900);
+        timelineSlider.valueProperty().addListener((observable, previous, value) -> {
+            if (!updatingSlider) {
+                timeline.seek((int) Math.round(value.doubleValue()));
+            }
+        });
+        timelineSlider.setOnMouseReleased(e1 -> buttons.requestFocus());
+
         buttons.getChildren().clear();
-        buttons.getChildren().addAll(back);
+        buttons.getChildren().addAll(back, timelineSlider);
         back.setFocusTraversable(false);
+        timelineSlider.setFocusTraversable(false);
+        updateTitle();
+        startTimer();
 
     }
 
@@ -338,6 +448,11 @@ public class GameView {
     private void endReplay(HBox buttons, Button backButton, Button replayButton,
                            Button stopButton, Button startButton, Button restartButton) {
 
+        if (savedRun != null) {
+            exit();
+            return;
+        }
+
         state = STATES.AFTER_REPLAY;
         primaryStage.setTitle("Simulation - Stopped");
         timer.stop();
@@ -345,6 +460,8 @@ public class GameView {
         gc.clearRect(0, 0, 1140, 660);
         drawElements();
         logger.reset();
+        timeline = null;
+        timelineSlider = null;
         buttons.getChildren().clear();
         buttons.getChildren().addAll(backButton, replayButton, stopButton, startButton, restartButton);
 
@@ -362,6 +479,7 @@ public class GameView {
         loader.load(map);
         state = STATES.FIRST_RUN;
         this.room = new Converter().convertCoords(loader.getRoom());
+        this.engine = new SimulationEngine(room);
         gc.clearRect(0, 0, 1140, 660);
         canvas_container.setStyle("-fx-background-color: #00ff00;");
         primaryStage.setTitle("Simulation - Stopped");
@@ -402,61 +520,97 @@ public class GameView {
             logger.reset();
         }
 
-        primaryStage.setTitle("Simulation - Running");
         state = STATES.RUNNING;
-        timer.start();
+        updateTitle();
+        startTimer();
 
     }
 
     /**
-     * Performs the tick action.
+     * Performs the tick action, runs the ticks due since the last frame and draws the room once.
+     *
+     * @param now The time of the frame in nanoseconds.
      */
-    private void tickAction() {
-        gc.clearRect(0, 0, 1140, 660);
+    private void tickAction(long now) {
 
         if (state == STATES.RUNNING) {
 
-            for (AutomatedRobot robot : room.getRobots()) {
-                robot.move();
-            }
-
-            if (isTurn != 0) {
-                for (ControlledRobot robot : room.getControlledRobots()) {
-                    robot.turn(isTurn);
-                }
-            }
-
-            if (isMoving) {
-                for (ControlledRobot robot : room.getControlledRobots()) {
-                    robot.move();
-                }
-            }
-            logger.log(room);
+            engine.setTurn(isTurn);
+            engine.setMoving(isMoving);
+            clock.advance(now, simulationStep);
+            updateTitle();
 
         }
 
         if (state == STATES.REPLAY) {
-            if (replay_up) {
-                logger.getLastFrame(room, 1);
-            } else {
-                logger.getLastFrame(room, -1);
+            timeline.advance(now);
+            if (!timelineSlider.isValueChanging()) {
+                updatingSlider = true;
+                timelineSlider.setValue(timeline.getFrame());
+                updatingSlider = false;
             }
+            updateTitle();
         }
 
-        if (state == STATES.RUNNING) {
-            primaryStage.setTitle("Simulation - Running");
-        }
-
+        gc.clearRect(0, 0, 1140, 660);
         drawElements();
 
     }
 
+    /**
+     * Performs one tick of the simulation and logs it.
+     */
+    private void simulationStep() {
+        engine.tick();
+        logger.log(room);
+    }
+
+    /**
+     * Starts the timer, the time the simulation was paused is not caught up.
+     */
+    private void startTimer() {
+        clock.reset();
+        timer.start();
+    }
+
+    /**
+     * Shows the state and the speed of the running simulation or the position of the replay in the title.
+     */
+    private void updateTitle() {
+        if (state == STATES.RUNNING) {
+            primaryStage.setTitle("Simulation - Running (" + clock.getSpeedLabel() + ")" +
+                    (clock.isOverrun() ? " - overrun" : ""));
+        }
+        if (state == STATES.REPLAY) {
+            String playback = timeline.getDirection() == 0 ? "paused" :
+                    timeline.getDirection() > 0 ? "playing" : "rewinding";
+            primaryStage.setTitle("Simulation - Replay " + (timeline.getFrame() + 1) + "/" +
+                    timeline.getFrameCount() + " (" + timeline.getSpeedLabel() + ", " + playback + ")");
+        }
+    }
+
     /**
      * Exits the simulation.
      */
     private void exit() {
 
+        timer.stop();
+        if (logger != null) {
+            logger.close();
+        }
         primaryStage.close();
+
+        if (savedRun != null) {
+            try {
+                savedRun.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Error closing log file", e);
+            }
+            LogsListView logsListView = new LogsListView();
+            logsListView.show_logs();
+            return;
+        }
+
         MapsListView mapsListView = new MapsListView();
         mapsListView.show_maps();
 
@@ -0,0 +1,267 @@
+/**
+ * Project name: Robot Simulation
+ * File name: LogsListView.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Maksym Podhornyi(xpodho08)
+ * Description: Represents a view for the list of logged runs.
+ */
+
+package ija.project.view;
+
+import ija.project.utils.LogCatalog;
+
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Represents a view for the list of logged runs.
+ * The runs are taken from a LogCatalog, so the list is shown without opening the logs, and only the visible rows
+ * are built. The list first shows the runs as they were last known and is updated once the catalog is refreshed
+ * in the background. A run is opened straight into the replay, a JSON log is converted in the background first.
+ */
+public class LogsListView {
+
+    /** Number of ticks of the simulation per second, used to show the length of a run. */
+    private static final int TICKS_PER_SECOND = 120;
+
+    /** Catalog of the logs, kept between the views so the logs are read once per application run. */
+    private static final LogCatalog catalog = new LogCatalog();
+
+    /** The thread refreshing the catalog and converting JSON logs, so the list never waits for a log to be read. */
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-catalog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The runs of the last refresh, null before the first refresh, used on the JavaFX thread only. */
+    private static List<LogCatalog.Entry> known = null;
+
+    /**    Stage of the application. */
+    private Stage stage;
+
+    /**    Title of the list, it also shows the progress of opening a run. */
+    private Label title;
+
+    /**    List of the runs. */
+    private ListView<LogCatalog.Entry> runs;
+
+    /**    Whether a run is being opened. */
+    private boolean opening = false;
+
+    /**
+     * Creates a new view for the list of logged runs.
+     */
+    public LogsListView() {}
+
+    /**
+     * Builds the list of logged runs.
+     */
+    public void build() {
+
+        VBox menu = new VBox();
+        menu.setSpacing(30);
+        menu.setStyle("-fx-background-color: #000000;");
+        menu.setAlignment(Pos.CENTER);
+
+        title = new Label("Select a Run");
+
+        runs = new ListView<>();
+        runs.getItems().setAll(known != null ? known : catalog.cached());
+        runs.setPlaceholder(new Label("Loading runs..."));
+        refresh();
+        runs.setPrefSize(640, 480);
+        runs.setMaxWidth(640);
+        runs.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(LogCatalog.Entry entry, boolean empty) {
+                super.updateItem(entry, empty);
+                setText(empty || entry == null ? null : describe(entry));
+            }
+        });
+        runs.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2) {
+                open(runs.getSelectionModel().getSelectedItem());
+            }
+        });
+
+        Button openButton = new Button("Open");
+        openButton.setOnAction(e -> open(runs.getSelectionModel().getSelectedItem()));
+
+        Button backButton = new Button("Back");
+        backButton.setOnAction(e -> {
+            stage.close();
+            MenuView menuView = new MenuView();
+            menuView.showMenu();
+        });
+
+        HBox buttons = new HBox(15);
+        buttons.setAlignment(Pos.CENTER);
+        buttons.getChildren().addAll(openButton, backButton);
+
+        menu.getChildren().addAll(title, runs, buttons);
+
+        Scene scene = new Scene(menu, 700, 700);
+
+        try {
+            scene.getStylesheets().add("file:lib/styles/maps_list.css");
+        } catch (NullPointerException e) {
+            throw new RuntimeException("Exception is occured");
+        }
+
+        scene.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) {
+                MenuView menuView = new MenuView();
+                menuView.showMenu();
+                stage.close();
+            }
+            if (e.getCode() == KeyCode.ENTER) {
+                open(runs.getSelectionModel().getSelectedItem());
+            }
+        });
+
+        stage.setScene(scene);
+        stage.setTitle("Run Selection");
+        stage.getIcons().add(new Image("file:lib/robot.jpg"));
+        stage.setResizable(false);
+        stage.show();
+
+    }
+
+    /**
+     * Shows the list of logged runs.
+     */
+    public void show_logs() {
+
+        this.stage = new Stage();
+        build();
+
+    }
+
+    /**
+     * Refreshes the catalog in the background and shows the refreshed runs, keeping the selected run selected.
+     * If the log directory cannot be read, the list is emptied and shows the error instead.
+     */
+    private void refresh() {
+
+        ListView<LogCatalog.Entry> list = runs;
+        worker.execute(() -> {
+            List<LogCatalog.Entry> logs;
+            try {
+                logs = catalog.refresh();
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> {
+                    list.getItems().clear();
+                    list.setPlaceholder(new Label(e.getMessage()));
+                });
+                return;
+            }
+
+            Platform.runLater(() -> {
+                known = logs;
+                LogCatalog.Entry selected = list.getSelectionModel().getSelectedItem();
+                list.getItems().setAll(logs);
+                list.setPlaceholder(new Label("No runs"));
+                if (selected != null) {
+                    logs.stream().filter(entry -> entry.getName().equals(selected.getName())).findFirst()
+                            .ifPresent(entry -> list.getSelectionModel().select(entry));
+                }
+            });
+        });
+
+    }
+
+    /**
+     * Opens a run in the replay. A JSON log is converted to the binary format in the background first,
+     * the title shows the conversion and the replay opens once it is done.
+     *
+     * @param entry The run to open, nothing happens if it is null, cannot be read or another run is being opened.
+     */
+    private void open(LogCatalog.Entry entry) {
+
+        if (entry == null || !entry.isReadable() || opening) {
+            return;
+        }
+
+        if (entry.isBinary()) {
+            replay(entry, catalog.binaryLog(entry));
+            return;
+        }
+
+        opening = true;
+        title.setText("Converting " + entry.getMap() + " to the binary format...");
+
+        worker.execute(() -> {
+            File log;
+            try {
+                log = catalog.binaryLog(entry);
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> {
+                    opening = false;
+                    title.setText("Error converting " + entry.getMap() + ": " + e.getMessage());
+                });
+                return;
+            }
+
+            Platform.runLater(() -> {
+                opening = false;
+                // the list may have been left while the log was converted
+                if (stage.isShowing()) {
+                    replay(entry, log);
+                }
+            });
+        });
+
+    }
+
+    /**
+     * Closes the list and opens a binary log in the replay.
+     *
+     * @param entry The run.
+     * @param log The binary log of the run.
+     */
+    private void replay(LogCatalog.Entry entry, File log) {
+
+        stage.close();
+        GameView gameView = new GameView();
+        gameView.replayLog(entry.getMap(), log);
+
+    }
+
+    /**
+     * Describes a run in one line of the list.
+     *
+     * @param entry The run.
+     * @return The map, the start, the length, the robots and the size of the run.
+     */
+    private static String describe(LogCatalog.Entry entry) {
+        if (!entry.isReadable()) {
+            return entry.getMap() + "  " + new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(entry.getStart())) +
+                    "  (unreadable)";
+        }
+        int seconds = entry.getFrameCount() / TICKS_PER_SECOND;
+        return String.format("%s  %s  %d:%02d  %d robots  %.1f MB%s", entry.getMap(),
+                new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(entry.getStart())),
+                seconds / 60, seconds % 60, entry.getRobotCount() + entry.getControlledRobotCount(),
+                entry.getBytes() / 1e6, entry.isBinary() ? "" : "  (JSON)");
+    }
+
+}
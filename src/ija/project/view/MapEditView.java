@@ -2,7 +2,7 @@
  * Project name: Robot Simulation
  * File name: MapEditView.java
  * Date: 05.05.2024
- * Last update: 05.05.2024
+ * Last update: 18.10.2026
  * Author: Maksym Podhornyi(xpodho08)
  * Description: Represents a view for editing maps.
  */
@@ -10,7 +10,8 @@
 package ija.project.view;
 
 import ija.project.game.*;
-import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -25,12 +26,23 @@ import javafx.scene.image.Image;
 
 /**
  * Represents a view for editing maps.
+ * The map is drawn on a canvas like the simulation, a click is mapped to its cell from the coordinates, and only
+ * the clicked cell is drawn again, so the view costs the same for maps of any size.
  */
 public class MapEditView {
 
+    /** Smallest cell size in pixels at which the lines of the grid are drawn. */
+    private static final double GRID_CELL_SIZE = 4;
+
     /** The room to be edited. */
     private Room room;
 
+    /** The size of one cell of the grid in pixels, smaller than the robot size for large maps. */
+    private double cellSize = Room.ROBOT_SIZE;
+
+    /** Graphics context of the canvas showing the map. */
+    private GraphicsContext gc;
+
     /** The type of the object to be added. */
     private boolean wall = false;
 
@@ -65,50 +77,22 @@ public class MapEditView {
         borderPane.setLeft(new Rectangle(41, 682, Color.BLACK));
         borderPane.setRight(new Rectangle(41, 682, Color.BLACK));
 
-        GridPane grid = new GridPane();
-        grid.setAlignment(Pos.CENTER);
-
-        for (int i = 0; i < 38; i++) {
-            for (int j = 0; j < 22; j++) {
-                Rectangle rect = new Rectangle(30, 30);
-                rect.setFill(Color.WHITE);
-                rect.setStroke(Color.BLACK);
-                grid.add(rect, i, j);
-            }
-        }
-
-        borderPane.setCenter(grid);
-
-        root.getChildren().add(borderPane);
-
         Loader loader = new Loader();
         loader.load(map);
         this.room = loader.getRoom();
+        this.cellSize = Math.min(Room.ROBOT_SIZE,
+                Math.min(1140.0 / room.getColumns(), 660.0 / room.getRows()));
 
-        for (Obstacle obstacle : room.getObstacles()) {
-            Position position = obstacle.getPosition();
-            Rectangle rect = new Rectangle(30, 30);
-            rect.setFill(Color.BLACK);
-            grid.add(rect, (int)position.getX(), (int)position.getY());
-        }
+        Canvas canvas = new Canvas(room.getColumns() * cellSize, room.getRows() * cellSize);
+        this.gc = canvas.getGraphicsContext2D();
+        drawMap();
 
-        for (AutomatedRobot robot : room.getRobots()) {
-            Position position = robot.getPosition();
-            Circle circle = new Circle(14);
-            circle.setFill(Color.CYAN);
-            circle.setTranslateX(1.5);
-            circle.setTranslateY(-0.5);
-            grid.add(circle, (int)position.getX(), (int)position.getY());
-        }
+        StackPane canvasPane = new StackPane(canvas);
+        canvasPane.setAlignment(Pos.CENTER);
 
-        for (ControlledRobot robot : room.getControlledRobots()) {
-            Position position = robot.getPosition();
-            Circle circle = new Circle(14);
-            circle.setFill(Color.RED);
-            circle.setTranslateX(1.5);
-            circle.setTranslateY(-0.5);
-            grid.add(circle, (int)position.getX(), (int)position.getY());
-        }
+        borderPane.setCenter(canvasPane);
+
+        root.getChildren().add(borderPane);
 
         HBox parent = new HBox(10);
 
@@ -195,43 +179,24 @@ public class MapEditView {
             checkBox3.setSelected(false);
         });
 
-        grid.setOnMouseClicked(e -> {
+        canvas.setOnMouseClicked(e -> {
 
-            Node source = (Node)e.getTarget();
-            Integer x = GridPane.getColumnIndex(source);
-            Integer y = GridPane.getRowIndex(source);
+            int x = (int) Math.floor(e.getX() / cellSize);
+            int y = (int) Math.floor(e.getY() / cellSize);
 
-            if (x == null || y == null) {
-                return;
-            }
-
-            if (x < 0 || x >= 38 || y < 0 || y >= 22) {
+            if (x < 0 || x >= room.getColumns() || y < 0 || y >= room.getRows()) {
                 return;
             }
 
             if (wall) {
 
-                if (room.addObstacle(new Obstacle(new Position(x, y)))) {
-
-                    Rectangle rect = new Rectangle(30, 30);
-                    rect.setFill(Color.BLACK);
-                    grid.add(rect, x, y);
-
-                }
+                room.addObstacle(new Obstacle(new Position(x, y)));
 
             }
 
             if (robot) {
 
-                if (room.addRobot(new AutomatedRobot(new Position(x, y), room))) {
-
-                    Circle circle = new Circle(14);
-                    circle.setFill(Color.CYAN);
-                    circle.setTranslateX(1.5);
-                    circle.setTranslateY(-0.5);
-                    grid.add(circle, x, y);
-
-                }
+                room.addRobot(new AutomatedRobot(new Position(x, y), room));
 
             }
 
@@ -240,28 +205,17 @@ public class MapEditView {
                 if (!room.getControlledRobots().isEmpty()) {
 
                     ControlledRobot robot = room.getControlledRobots().get(0);
-                    Rectangle rect = new Rectangle(30, 30);
-                    rect.setFill(Color.WHITE);
-                    rect.setStroke(Color.BLACK);
-                    grid.add(rect, (int)robot.getPosition().getX(), (int)robot.getPosition().getY());
-
                     room.removeControlledRobot(robot);
+                    drawCell((int) robot.getPosition().getX(), (int) robot.getPosition().getY());
 
                 }
 
-                if(room.addControlledRobot(new ControlledRobot(new Position(x, y), room))) {
-
-                    Circle circle = new Circle(14);
-                    circle.setFill(Color.RED);
-                    circle.setTranslateX(1.5);
-                    circle.setTranslateY(-0.5);
-                    grid.add(circle, x, y);
-
-                }
+                room.addControlledRobot(new ControlledRobot(new Position(x, y), room));
 
             }
 
-            if (eraser.isSelected()) {
+            // the lists are searched only if the cell holds something to erase
+            if (eraser.isSelected() && room.obstacleAtPosition(x, y)) {
                 for (Obstacle obstacle : room.getObstacles()) {
                     Position position = obstacle.getPosition();
                     if (position.getX() == x && position.getY() == y) {
@@ -269,7 +223,9 @@ public class MapEditView {
                         break;
                     }
                 }
+            }
 
+            if (eraser.isSelected() && room.robotAtPosition(x, y)) {
                 for (AutomatedRobot robot : room.getRobots()) {
                     Position position = robot.getPosition();
                     if (position.getX() == x && position.getY() == y) {
@@ -285,14 +241,10 @@ public class MapEditView {
                         break;
                     }
                 }
-
-                Rectangle rect = new Rectangle(30, 30);
-                rect.setFill(Color.WHITE);
-                rect.setStroke(Color.BLACK);
-                grid.add(rect, x, y);
-
             }
 
+            drawCell(x, y);
+
         });
 
         buttons.getChildren().addAll(saveButton, backButton);
@@ -328,4 +280,90 @@ public class MapEditView {
         primaryStage.show();
     }
 
+    /**
+     * Draws the whole map, the obstacles are drawn as merged walls, one rectangle for every wall.
+     */
+    private void drawMap() {
+
+        double width = room.getColumns() * cellSize;
+        double height = room.getRows() * cellSize;
+
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, width, height);
+
+        if (cellSize >= GRID_CELL_SIZE) {
+            gc.setStroke(Color.BLACK);
+            gc.setLineWidth(1);
+            for (int i = 0; i <= room.getColumns(); i++) {
+                gc.strokeLine(i * cellSize, 0, i * cellSize, height);
+            }
+            for (int j = 0; j <= room.getRows(); j++) {
+                gc.strokeLine(0, j * cellSize, width, j * cellSize);
+            }
+        }
+
+        ObstacleField field = room.getObstacleField();
+        gc.setFill(Color.BLACK);
+        for (int i = 0; i < field.getWallCount(); i++) {
+            gc.fillRect(field.getWallColumn(i) * cellSize, field.getWallRow(i) * cellSize,
+                    field.getWallWidth(i) * cellSize, field.getWallHeight(i) * cellSize);
+        }
+
+        for (AutomatedRobot robot : room.getRobots()) {
+            drawRobot(robot.getPosition(), Color.CYAN);
+        }
+
+        for (ControlledRobot robot : room.getControlledRobots()) {
+            drawRobot(robot.getPosition(), Color.RED);
+        }
+
+    }
+
+    /**
+     * Draws one cell of the map with its obstacle or robot.
+     *
+     * @param x The column of the cell.
+     * @param y The row of the cell.
+     */
+    private void drawCell(int x, int y) {
+
+        gc.setFill(Color.WHITE);
+        gc.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+
+        if (cellSize >= GRID_CELL_SIZE) {
+            gc.setStroke(Color.BLACK);
+            gc.setLineWidth(1);
+            gc.strokeRect(x * cellSize, y * cellSize, cellSize, cellSize);
+        }
+
+        if (room.obstacleAtPosition(x, y)) {
+            gc.setFill(Color.BLACK);
+            gc.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+        }
+
+        if (room.robotAtPosition(x, y)) {
+            boolean controlled = false;
+            for (ControlledRobot robot : room.getControlledRobots()) {
+                controlled |= robot.getPosition().getX() == x && robot.getPosition().getY() == y;
+            }
+            drawRobot(new Position(x, y), controlled ? Color.RED : Color.CYAN);
+        }
+
+    }
+
+    /**
+     * Draws a robot as a circle filling its cell.
+     *
+     * @param position The cell of the robot.
+     * @param color The colour of the robot.
+     */
+    private void drawRobot(Position position, Color color) {
+
+        gc.setFill(color);
+        gc.fillOval(position.getX() * cellSize + cellSize / Room.ROBOT_SIZE,
+                position.getY() * cellSize + cellSize / Room.ROBOT_SIZE,
+                cellSize * 28 / Room.ROBOT_SIZE, cellSize * 28 / Room.ROBOT_SIZE);
+
+    }
+
 }
@@ -2,7 +2,7 @@
  * Project name: Robot Simulation
  * File name: MapsListView.java
  * Date: 05.05.2024
- * Last update: 05.05.2024
+ * Last update: 18.10.2026
  * Author: Neonila Mashlai(xmashl00)
  * Description: Represents a view for the list of maps.
  */
@@ -10,10 +10,15 @@
 package ija.project.view;
 
 import ija.project.utils.Loader;
+import ija.project.utils.MapCatalog;
 
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
 import javafx.scene.control.Button;
@@ -21,14 +26,42 @@ import javafx.stage.Stage;
 import javafx.scene.Scene;
 import javafx.scene.input.KeyCode;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * Represents a view for the list of maps.
+ * The maps are taken from a MapCatalog, so the list is shown without reading the maps, and only the visible rows
+ * are built, which keeps the view fast with any number of maps. The list first shows the maps as they were last
+ * known and is updated once the catalog is refreshed in the background. The thumbnails of the visible rows are loaded
+ * in the background by a ThumbnailLoader, a row shows its thumbnail once it is loaded.
  */
 public class MapsListView {
 
+    /** Catalog of the maps, kept between the views so only the changed maps are read again. */
+    private static final MapCatalog catalog = new MapCatalog();
+
+    /** Loader of the thumbnails of the maps, kept between the views with the recently shown thumbnails. */
+    private static final ThumbnailLoader thumbnails = new ThumbnailLoader();
+
+    /** The thread refreshing the catalog, so the list is never blocked by a listing of the map directory. */
+    private static final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "map-catalog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The maps of the last refresh, null before the first refresh, used on the JavaFX thread only. */
+    private static List<MapCatalog.Entry> known = null;
+
     /**    Stage of the application. */
     private Stage stage;
 
+    /**    List of the maps. */
+    private ListView<MapCatalog.Entry> mapsList;
+
     /**
      * Creates a new view for the list of maps.
      */
@@ -41,41 +74,79 @@ public class MapsListView {
      */
     public void addMaps(VBox menu) {
 
-        String[] maps = Loader.getMaps();
-        VBox mapsList = new VBox(10);
-        mapsList.setAlignment(Pos.CENTER);
-
-        for (String map : maps) {
+        mapsList = new ListView<>();
+        mapsList.getItems().setAll(known != null ? known : catalog.cached());
+        mapsList.setPlaceholder(new Label("Loading maps..."));
+        refresh();
+        mapsList.setPrefSize(640, 400);
+        mapsList.setMaxWidth(640);
+        // the rows keep their height when a thumbnail arrives, so the list does not jump while scrolling
+        mapsList.setFixedCellSize(ThumbnailLoader.HEIGHT + 8);
+        mapsList.setCellFactory(list -> new ListCell<>() {
+
+            /** The thumbnail shown in the row. */
+            private final ImageView thumbnail = new ImageView();
+
+            /** The thumbnail being loaded for the row, null if none. */
+            private Future<?> pending = null;
+
+            @Override
+            protected void updateItem(MapCatalog.Entry entry, boolean empty) {
+                super.updateItem(entry, empty);
+                if (pending != null) {
+                    // the row shows another map now, the old thumbnail is not loaded unless already started
+                    pending.cancel(false);
+                    pending = null;
+                }
+
+                setText(empty || entry == null ? null : describe(entry));
+                thumbnail.setImage(empty || entry == null || !entry.isReadable() ? null : thumbnails.get(entry));
+                setGraphic(empty || entry == null ? null : thumbnail);
+                if (thumbnail.getImage() == null && !empty && entry != null && entry.isReadable()) {
+                    pending = thumbnails.load(entry, image -> {
+                        if (getItem() == entry) {
+                            thumbnail.setImage(image);
+                        }
+                    });
+                }
+            }
+        });
+        mapsList.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2) {
+                play(mapsList.getSelectionModel().getSelectedItem());
+            }
+        });
 
-            HBox hbox = new HBox(10);
-            hbox.setAlignment(Pos.CENTER);
+        Button playButton = new Button("Play");
+        playButton.setOnAction(e -> play(mapsList.getSelectionModel().getSelectedItem()));
 
-            Button mapButton = new Button(map);
-            mapButton.setOnAction(e -> {
-                stage.close();
-                GameView gameView = new GameView();
-                gameView.runGame(map);
-            });
-
-            Button editButton = new Button("Edit");
-            editButton.setOnAction(e -> {
+        Button editButton = new Button("Edit");
+        editButton.setOnAction(e -> {
+            MapCatalog.Entry entry = mapsList.getSelectionModel().getSelectedItem();
+            if (entry != null) {
                 stage.close();
                 MapEditView mapEdit = new MapEditView();
-                mapEdit.editMap(map);
-            });
+                mapEdit.editMap(entry.getName());
+            }
+        });
 
-            Button deleteButton = new Button("Delete");
-            deleteButton.setOnAction(e -> {
-                Loader.deleteMap(map);
-                MapsListView mapsListView = new MapsListView();
-                mapsListView.show_maps();
-            });
+        Button deleteButton = new Button("Delete");
+        deleteButton.setOnAction(e -> {
+            MapCatalog.Entry entry = mapsList.getSelectionModel().getSelectedItem();
+            if (entry != null) {
+                Loader.deleteMap(entry.getName());
+                mapsList.getItems().remove(entry);
+                if (known != null) {
+                    known.remove(entry);
+                }
+            }
+        });
 
-            hbox.getChildren().addAll(mapButton, editButton, deleteButton);
-            mapsList.getChildren().add(hbox);
-        }
+        HBox hbox = new HBox(10);
+        hbox.setAlignment(Pos.CENTER);
+        hbox.getChildren().addAll(playButton, editButton, deleteButton);
 
-        menu.getChildren().add(mapsList);
+        menu.getChildren().addAll(mapsList, hbox);
 
     }
 
@@ -85,7 +156,7 @@ public class MapsListView {
     public void build() {
 
         VBox menu = new VBox();
-        menu.setSpacing(50);
+        menu.setSpacing(30);
         menu.setStyle("-fx-background-color: #000000;");
         menu.setAlignment(Pos.CENTER);
 
@@ -128,6 +199,9 @@ public class MapsListView {
                 menuView.showMenu();
                 stage.close();
             }
+            if (e.getCode() == KeyCode.ENTER) {
+                play(mapsList.getSelectionModel().getSelectedItem());
+            }
         });
 
         stage.setScene(scene);
@@ -147,4 +221,69 @@ public class MapsListView {
         build();
 
     }
+
+    /**
+     * Refreshes the catalog in the background and shows the refreshed maps, keeping the selected map selected.
+     * If the map directory cannot be listed, the list is emptied and shows the error instead.
+     */
+    private void refresh() {
+
+        ListView<MapCatalog.Entry> list = mapsList;
+        refresher.execute(() -> {
+            List<MapCatalog.Entry> maps;
+            try {
+                maps = catalog.refresh();
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> {
+                    list.getItems().clear();
+                    list.setPlaceholder(new Label(e.getMessage()));
+                });
+                return;
+            }
+
+            Platform.runLater(() -> {
+                known = maps;
+                MapCatalog.Entry selected = list.getSelectionModel().getSelectedItem();
+                list.getItems().setAll(maps);
+                list.setPlaceholder(new Label("No maps"));
+                if (selected != null) {
+                    maps.stream().filter(entry -> entry.getName().equals(selected.getName())).findFirst()
+                            .ifPresent(entry -> list.getSelectionModel().select(entry));
+                }
+            });
+        });
+
+    }
+
+    /**
+     * Starts the simulation on a map.
+     *
+     * @param entry The map to play, nothing happens if it is null or cannot be read.
+     */
+    private void play(MapCatalog.Entry entry) {
+
+        if (entry == null || !entry.isReadable()) {
+            return;
+        }
+
+        stage.close();
+        GameView gameView = new GameView();
+        gameView.runGame(entry.getName());
+
+    }
+
+    /**
+     * Describes a map in one line of the list.
+     *
+     * @param entry The map.
+     * @return The name, the size, the obstacles and the robots of the map.
+     */
+    private static String describe(MapCatalog.Entry entry) {
+        if (!entry.isReadable()) {
+            return entry.getName() + "  (unreadable)";
+        }
+        return String.format("%s  %dx%d  %d obstacles  %d robots  %d controlled", entry.getName(),
+                entry.getColumns(), entry.getRows(), entry.getObstacleCount(), entry.getRobotCount(),
+                entry.getControlledRobotCount());
+    }
 }
@@ -51,10 +51,17 @@ public class MenuView extends Application {
             mapsListView.show_maps();
         });
 
+        Button replaysButton = new Button("Replays");
+        replaysButton.setOnAction(e -> {
+            stage.close();
+            LogsListView logsListView = new LogsListView();
+            logsListView.show_logs();
+        });
+
         Button exitButton = new Button("Exit Game");
         exitButton.setOnAction(e -> stage.close());
 
-        menu.getChildren().addAll(title, loadButton, exitButton);
+        menu.getChildren().addAll(title, loadButton, replaysButton, exitButton);
 
         Scene scene = new Scene(menu, 700, 700);
 
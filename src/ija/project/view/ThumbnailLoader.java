@@ -0,0 +1,165 @@
+/**
+ * Project name: Robot Simulation
+ * File name: ThumbnailLoader.java
+ * Date: 18.10.2026
+ * Last update: 18.10.2026
+ * Author: Neonila Mashlai(xmashl00)
+ * Description: Loads the thumbnails of maps on a thread of its own.
+ */
+
+package ija.project.view;
+
+import ija.project.utils.MapCatalog;
+import ija.project.utils.MapThumbnail;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Loads the thumbnails of maps on a thread of its own, so the list of maps never waits for a map to be read.
+ * The images are kept in memory for the most recently shown maps, the others are read from the cached pictures
+ * next to the maps, see MapThumbnail, and a map is loaded and drawn only when its content changed.
+ * All methods are called on the JavaFX thread.
+ */
+public class ThumbnailLoader {
+
+    /** Largest width of a thumbnail in pixels. */
+    public static final int WIDTH = 96;
+
+    /** Largest height of a thumbnail in pixels. */
+    public static final int HEIGHT = 56;
+
+    /** Number of images kept in memory. */
+    private static final int CACHE_SIZE = 256;
+
+    /** Colour of a pixel without obstacles. */
+    private static final int FLOOR_COLOR = 0xFF202020;
+
+    /** Colour of a pixel covered by obstacles only. */
+    private static final int WALL_COLOR = 0xFFC8C8C8;
+
+    /** Colour of an automated robot. */
+    private static final int ROBOT_COLOR = 0xFF00E5FF;
+
+    /** Colour of a controlled robot. */
+    private static final int CONTROLLED_ROBOT_COLOR = 0xFFFF3030;
+
+    /** The images of the most recently shown maps by the name and hash of the map, in the order of use. */
+    private final Map<String, Image> images = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /** The thread loading the thumbnails. */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "map-thumbnails");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a new loader, the thread is started with the first thumbnail to load.
+     */
+    public ThumbnailLoader() {}
+
+    /**
+     * Returns the thumbnail of a map if it is in memory.
+     *
+     * @param entry The map.
+     * @return The image, null if it has to be loaded.
+     */
+    public Image get(MapCatalog.Entry entry) {
+        return images.get(key(entry));
+    }
+
+    /**
+     * Loads the thumbnail of a map in the background.
+     * A request not started yet is dropped when cancelled, e.g. when the row of the map was scrolled away.
+     *
+     * @param entry The map, it has to be readable.
+     * @param callback Receives the image on the JavaFX thread, it is not called if the map cannot be loaded.
+     * @return The pending request.
+     */
+    public Future<?> load(MapCatalog.Entry entry, Consumer<Image> callback) {
+        String key = key(entry);
+        return executor.submit(() -> {
+            Image image;
+            try {
+                image = toImage(MapThumbnail.of(entry.getName(), entry.getHash(), WIDTH, HEIGHT));
+            } catch (RuntimeException e) {
+                // the row of a map which cannot be loaded stays without a thumbnail
+                return;
+            }
+            Platform.runLater(() -> {
+                images.put(key, image);
+                callback.accept(image);
+            });
+        });
+    }
+
+    /**
+     * Returns the key of a map in memory, which changes with the content of the map.
+     *
+     * @param entry The map.
+     * @return The name and the hash of the map.
+     */
+    private static String key(MapCatalog.Entry entry) {
+        return entry.getName() + '@' + Long.toHexString(entry.getHash());
+    }
+
+    /**
+     * Colours a picture, an image can be built on any thread as long as it is not shown yet.
+     *
+     * @param thumbnail The picture.
+     * @return The image.
+     */
+    private static Image toImage(MapThumbnail thumbnail) {
+        int width = thumbnail.getWidth();
+        int height = thumbnail.getHeight();
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = color(thumbnail.getShade(x, y));
+            }
+        }
+
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return image;
+    }
+
+    /**
+     * Returns the colour of a shade of a picture.
+     *
+     * @param shade The shade, see MapThumbnail.
+     * @return The colour as ARGB.
+     */
+    private static int color(int shade) {
+        if (shade == MapThumbnail.ROBOT) {
+            return ROBOT_COLOR;
+        }
+        if (shade == MapThumbnail.CONTROLLED_ROBOT) {
+            return CONTROLLED_ROBOT_COLOR;
+        }
+
+        int color = 0xFF000000;
+        for (int shift = 0; shift < 24; shift += 8) {
+            int floor = (FLOOR_COLOR >> shift) & 0xFF;
+            int wall = (WALL_COLOR >> shift) & 0xFF;
+            color |= (floor + (wall - floor) * shade / MapThumbnail.WALL) << shift;
+        }
+        return color;
+    }
+
+}
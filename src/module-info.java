@@ -18,6 +18,8 @@ module ija.project {
     requires javafx.fxml;
     requires javafx.base;
     requires org.json;
+    requires java.management;
+    requires jdk.management;
 
     exports ija.project;
     exports ija.project.game;